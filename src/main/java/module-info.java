@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2014-2025, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ */
+
+/**
+ * Numbers stored as lists of digits in a scale of notation.<p>
+ *
+ * {@link ua.kpi.comsys.test2.NumberList} is the list interface, and
+ * {@link ua.kpi.comsys.test2.implementation.NumberListImpl} is its
+ * implementation together with the batch tool and supporting classes.
+ * Operation statistics are published as MXBeans and Flight Recorder
+ * events, hence <tt>java.management</tt> and <tt>jdk.jfr</tt>.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+@SuppressWarnings("module")
+module ua.kpi.comsys.test2 {
+    requires java.management;
+    requires jdk.jfr;
+
+    exports ua.kpi.comsys.test2;
+    exports ua.kpi.comsys.test2.implementation;
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking loading and saving of numbers in <b>decimal</b> text format,
+ * built on <tt>AsynchronousFileChannel</tt>.<p>
+ *
+ * Files are processed in fixed size chunks. Each completed read or write
+ * schedules the next one, so no thread is held while the disk is busy and
+ * memory used for I/O does not depend on the number length.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+final class AsyncNumberFile {
+
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    private AsyncNumberFile() {
+    }
+
+    static CompletableFuture<NumberListImpl> load(Path path, ProgressListener listener) {
+        CompletableFuture<NumberListImpl> future = new CompletableFuture<>();
+        AsynchronousFileChannel channel = null;
+        try {
+            channel = AsynchronousFileChannel.open(path, StandardOpenOption.READ);
+            new Reader(channel, channel.size(), listener, future).start();
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(channel);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    // Digits are computed on the common pool, as conversion to decimal
+    // may take long, and written when they are ready
+    static CompletableFuture<Void> save(Supplier<byte[]> digits, Path path, ProgressListener listener) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        AsynchronousFileChannel channel = null;
+        try {
+            channel = AsynchronousFileChannel.open(path, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            AsynchronousFileChannel opened = channel;
+            // Completion of any kind, cancellation too, closes the channel
+            future.whenComplete((r, e) -> closeQuietly(opened));
+            ForkJoinPool.commonPool().execute(() -> {
+                if (future.isDone()) return;
+                try {
+                    new Writer(opened, digits.get(), listener, future).start();
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(channel);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private static void closeQuietly(AsynchronousFileChannel channel) {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing to report, the operation result is already known
+        }
+    }
+
+    // Reads file chunk by chunk, feeding bytes to the decoder
+    private static final class Reader implements CompletionHandler<Integer, Void> {
+        private final AsynchronousFileChannel channel;
+        private final long total;
+        private final ProgressListener listener;
+        private final CompletableFuture<NumberListImpl> future;
+        private final ByteBuffer buffer;
+        private final LineDecoder decoder;
+        private long position;
+
+        Reader(AsynchronousFileChannel channel, long total, ProgressListener listener,
+               CompletableFuture<NumberListImpl> future) {
+            this.channel = channel;
+            this.total = total;
+            this.listener = listener;
+            this.future = future;
+            this.buffer = ByteBuffer.allocate((int) Math.max(1, Math.min(CHUNK_SIZE, total)));
+            this.decoder = new LineDecoder(total);
+            // Cancellation closes the channel, which aborts the pending read
+            future.whenComplete((r, e) -> closeQuietly(channel));
+        }
+
+        void start() {
+            if (total == 0) {
+                future.complete(decoder.finish());
+                return;
+            }
+            channel.read(buffer, position, null, this);
+        }
+
+        @Override
+        public void completed(Integer n, Void attachment) {
+            if (future.isDone()) return;
+            try {
+                boolean more = n >= 0;
+                if (more) {
+                    buffer.flip();
+                    more = decoder.feed(buffer);
+                    position += n;
+                    listener.progress(position, total);
+                }
+                if (!more || position >= total) {
+                    future.complete(decoder.finish());
+                } else {
+                    buffer.clear();
+                    channel.read(buffer, position, null, this);
+                }
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void failed(Throwable exc, Void attachment) {
+            future.completeExceptionally(exc);
+        }
+    }
+
+    // Encodes digits chunk by chunk into a single reusable buffer
+    private static final class Writer implements CompletionHandler<Integer, Void> {
+        private final AsynchronousFileChannel channel;
+        private final byte[] digits;
+        private final ProgressListener listener;
+        private final CompletableFuture<Void> future;
+        private final ByteBuffer buffer;
+        private int encoded;
+        private long position;
+
+        Writer(AsynchronousFileChannel channel, byte[] digits, ProgressListener listener,
+               CompletableFuture<Void> future) {
+            this.channel = channel;
+            this.digits = digits;
+            this.listener = listener;
+            this.future = future;
+            this.buffer = ByteBuffer.allocate(Math.max(1, Math.min(CHUNK_SIZE, digits.length)));
+        }
+
+        void start() {
+            if (digits.length == 0) {
+                future.complete(null);
+                return;
+            }
+            encodeChunk();
+            channel.write(buffer, position, null, this);
+        }
+
+        private void encodeChunk() {
+            buffer.clear();
+            int end = Math.min(digits.length, encoded + buffer.capacity());
+            for (int i = encoded; i < end; i++) {
+                buffer.put((byte) ('0' + digits[i]));
+            }
+            encoded = end;
+            buffer.flip();
+        }
+
+        @Override
+        public void completed(Integer n, Void attachment) {
+            if (future.isDone()) return;
+            try {
+                position += n;
+                if (!buffer.hasRemaining()) {
+                    listener.progress(position, digits.length);
+                    if (encoded == digits.length) {
+                        future.complete(null);
+                        return;
+                    }
+                    encodeChunk();
+                }
+                channel.write(buffer, position, null, this);
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void failed(Throwable exc, Void attachment) {
+            future.completeExceptionally(exc);
+        }
+    }
+
+    /**
+     * Incremental parser of the first line of a decimal file.<p>
+     *
+     * Accepts the same input as <tt>NumberListImpl(File)</tt>: digits
+     * surrounded by optional whitespace, but reports invalid characters
+     * instead of producing an empty list.
+     */
+    static final class LineDecoder {
+        private final NumberListBuilder builder;
+        private boolean done;
+
+        LineDecoder(long lengthHint) {
+            this.builder = new NumberListBuilder(lengthHint);
+        }
+
+        /**
+         * Consumes the buffer up to the end of line.
+         *
+         * @param buffer - next chunk of the file.
+         * @return <tt>false</tt> if end of line was reached and the rest
+         *         of the file is not needed, otherwise <tt>true</tt>.
+         * @throws DigitFormatException if the chunk contains invalid character.
+         */
+        boolean feed(ByteBuffer buffer) {
+            int limit = buffer.limit();
+            for (int i = buffer.position(); i < limit; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n' || b == '\r') {
+                    buffer.limit(i);
+                    done = true;
+                    break;
+                }
+            }
+            builder.append(buffer);
+            buffer.limit(limit);
+            return !done;
+        }
+
+        NumberListImpl finish() {
+            return builder.build();
+        }
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Applies operation to every number file of a directory tree and saves
+ * the results into another directory, keeping relative paths.<p>
+ *
+ * Each file is streamed through {@link NumberListBuilder}, transformed
+ * and saved with {@link NumberListImpl#saveList(java.io.File)}, or
+ * {@link NumberListImpl#savePacked(java.io.File)} to keep the scale of
+ * notation. Unlike the lenient file constructor of <tt>NumberListImpl</tt>,
+ * this is strict: files which cannot be read or contain anything but
+ * digits surrounded by whitespace are reported as failed, and no result
+ * is saved for them. Files are processed on virtual threads when the runtime has
+ * them, otherwise on a bounded pool of platform threads sized for I/O.<p>
+ *
+ * Directory walking is throttled by the total size of files in progress,
+ * so the number of loaded lists stays bounded however many files are
+ * scheduled. A file larger than the limit is processed alone.<p>
+ *
+ * Can be run from the command line:
+ * <pre>
+ * java ua.kpi.comsys.test2.implementation.BatchProcessor
+ *         [--base N] [--add NUMBER] [--packed] [--max-in-flight BYTES]
+ *         input-dir output-dir
+ * </pre>
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+public final class BatchProcessor {
+
+    /**
+     * Default limit of total size of files in progress, 64 MiB.
+     */
+    public static final long DEFAULT_MAX_IN_FLIGHT_BYTES = 64L << 20;
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    static final int FALLBACK_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 4);
+
+    private final UnaryOperator<NumberListImpl> operation;
+    private final int maxInFlight;
+    private final boolean packed;
+
+    /**
+     * Creates processor which saves results in <b>decimal</b> text format
+     * with default in-flight limit.
+     *
+     * @param operation - transformation applied to every number.
+     */
+    public BatchProcessor(UnaryOperator<NumberListImpl> operation) {
+        this(operation, DEFAULT_MAX_IN_FLIGHT_BYTES, false);
+    }
+
+    /**
+     * Creates processor.
+     *
+     * @param operation - transformation applied to every number.
+     * @param maxInFlightBytes - limit of total size of files in progress.
+     * @param packed - <tt>true</tt> to save results in packed format.
+     */
+    public BatchProcessor(UnaryOperator<NumberListImpl> operation, long maxInFlightBytes, boolean packed) {
+        if (maxInFlightBytes <= 0) throw new IllegalArgumentException("Limit must be positive: " + maxInFlightBytes);
+        this.operation = operation;
+        this.maxInFlight = (int) Math.min(maxInFlightBytes, Integer.MAX_VALUE);
+        this.packed = packed;
+    }
+
+    /**
+     * Processes all regular files of the input directory tree.
+     *
+     * @param input - directory with number files.
+     * @param output - directory for results, created if missing.
+     * @return statistics of the run.
+     * @throws IOException if input directory cannot be walked.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    public Report process(Path input, Path output) throws IOException, InterruptedException {
+        return process(input, output, ProgressListener.NONE);
+    }
+
+    /**
+     * Processes all regular files of the input directory tree.
+     *
+     * @param input - directory with number files.
+     * @param output - directory for results, created if missing.
+     * @param listener - receives size of processed files and total size
+     *                   of files scheduled so far.
+     * @return statistics of the run.
+     * @throws IOException if input directory cannot be walked.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    public Report process(Path input, Path output, ProgressListener listener)
+            throws IOException, InterruptedException {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicLong done = new AtomicLong();
+        AtomicLong scheduled = new AtomicLong();
+        List<Path> failed = Collections.synchronizedList(new ArrayList<>());
+        long started = System.nanoTime();
+        int files = 0;
+
+        ExecutorService executor = newExecutor();
+        try (Stream<Path> paths = Files.walk(input)) {
+            for (Path file : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                long length = Files.size(file);
+                int permits = (int) Math.max(1, Math.min(length, maxInFlight));
+                inFlight.acquire(permits);
+                scheduled.addAndGet(length);
+                files++;
+                Path target = output.resolve(input.relativize(file).toString());
+                executor.execute(() -> {
+                    try {
+                        processFile(file, target);
+                    } catch (RuntimeException e) {
+                        failed.add(file);
+                    } finally {
+                        inFlight.release(permits);
+                        listener.progress(done.addAndGet(length), scheduled.get());
+                    }
+                });
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // Workers are still saving results
+            }
+        }
+        return new Report(files, done.get(), System.nanoTime() - started, new ArrayList<>(failed));
+    }
+
+    private void processFile(Path file, Path target) {
+        try {
+            NumberListImpl result = operation.apply(load(file));
+            Files.createDirectories(target.getParent());
+            if (packed) {
+                result.savePacked(target.toFile());
+            } else {
+                result.saveList(target.toFile());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Helper: reads decimal text of the file, failing with
+    // DigitFormatException on any other character
+    static NumberListImpl load(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            NumberListBuilder builder = new NumberListBuilder(Files.size(file));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            for (int n; (n = in.read(buffer)) >= 0; ) {
+                builder.append(buffer, 0, n);
+            }
+            return builder.build();
+        }
+    }
+
+    // Helper: virtual thread per task executor, looked up reflectively to
+    // keep the sources compatible with runtimes which do not have it
+    static ExecutorService newExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(FALLBACK_THREADS);
+        }
+    }
+
+    /**
+     * Statistics of a batch run.
+     */
+    public static final class Report {
+        private final int files;
+        private final long bytes;
+        private final long elapsedNanos;
+        private final List<Path> failed;
+
+        Report(int files, long bytes, long elapsedNanos, List<Path> failed) {
+            this.files = files;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+            this.failed = Collections.unmodifiableList(failed);
+        }
+
+        /**
+         * Returns number of processed files, including failed ones.
+         *
+         * @return number of files.
+         */
+        public int getFiles() {
+            return files;
+        }
+
+        /**
+         * Returns total size of processed files.
+         *
+         * @return size in bytes.
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Returns wall clock time of the run.
+         *
+         * @return time in nanoseconds.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns files which could not be read, parsed or saved.
+         *
+         * @return failed input files.
+         */
+        public List<Path> getFailed() {
+            return failed;
+        }
+
+        /**
+         * Returns average number of files processed per second.
+         *
+         * @return files per second.
+         */
+        public double getFilesPerSecond() {
+            return files * 1e9 / Math.max(1, elapsedNanos);
+        }
+
+        /**
+         * Returns average number of input bytes processed per second.
+         *
+         * @return bytes per second.
+         */
+        public double getBytesPerSecond() {
+            return bytes * 1e9 / Math.max(1, elapsedNanos);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d files (%d failed), %d bytes in %.3f s: %.1f files/s, %.2f MiB/s",
+                    files, failed.size(), bytes, elapsedNanos / 1e9,
+                    getFilesPerSecond(), getBytesPerSecond() / (1 << 20));
+        }
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args - options, input and output directories.
+     * @throws Exception if the run cannot be completed.
+     */
+    public static void main(String[] args) throws Exception {
+        int base = 0;
+        NumberListImpl addend = null;
+        boolean packed = false;
+        long limit = DEFAULT_MAX_IN_FLIGHT_BYTES;
+        List<String> dirs = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--base": base = Integer.parseInt(args[++i]); Radix.checkBase(base); break;
+                    case "--add": addend = new NumberListBuilder().append(args[++i]).build(); break;
+                    case "--packed": packed = true; break;
+                    case "--max-in-flight": limit = Long.parseLong(args[++i]); break;
+                    default: dirs.add(args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            dirs.clear();
+        }
+        if (dirs.size() != 2 || limit <= 0) {
+            System.err.println("Usage: BatchProcessor [--base N] [--add NUMBER] [--packed]"
+                    + " [--max-in-flight BYTES] input-dir output-dir");
+            System.exit(2);
+        }
+
+        final int targetBase = base;
+        final NumberListImpl arg = addend;
+        UnaryOperator<NumberListImpl> operation = list -> {
+            NumberListImpl result = arg == null ? list : list.additionalOperation(arg);
+            return targetBase == 0 ? result.changeScale() : result.changeScale(targetBase);
+        };
+
+        long[] lastReport = {System.nanoTime()};
+        ProgressListener listener = (done, total) -> {
+            synchronized (lastReport) {
+                long now = System.nanoTime();
+                if (now - lastReport[0] < TimeUnit.SECONDS.toNanos(1)) return;
+                lastReport[0] = now;
+            }
+            System.err.printf("%d of %d bytes%n", done, total);
+        };
+
+        Report report = new BatchProcessor(operation, limit, packed)
+                .process(Path.of(dirs.get(0)), Path.of(dirs.get(1)), listener);
+        System.out.println(report);
+        for (Path file : report.getFailed()) {
+            System.err.println("Failed: " + file);
+        }
+        if (!report.getFailed().isEmpty()) System.exit(1);
+    }
+}
@@ -0,0 +1,540 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Arithmetic on digit arrays in any supported scale of notation, without
+ * converting them to <tt>BigInteger</tt> or text.<p>
+ *
+ * Digit arrays hold one digit per element, most significant digit first,
+ * as in {@link Radix}. Results never have leading zeros; zero is a single
+ * zero digit. Multiplication packs digits into words of
+ * base^digitsPerWord and switches from schoolbook to Karatsuba for long
+ * operands. Division is schoolbook long division on the same words, and
+ * square root, power and greatest common divisor are built on them.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+final class DigitArithmetic {
+
+    // Operand length in words below which schoolbook multiplication is faster
+    static final int KARATSUBA_THRESHOLD = 40;
+
+    // Bound of Lehmer quotients and cofactors, so that a cofactor times
+    // a word fits into a long with room for the other term and carry
+    private static final long LEHMER_LIMIT = 1L << 30;
+
+    private static final byte[] ZERO = {0};
+
+    private DigitArithmetic() {
+    }
+
+    /**
+     * Adds any number of operands in a single carry pass: digits of all
+     * operands are accumulated per column first, then carries are
+     * propagated once from the least significant column.
+     *
+     * @param terms - operands in the same base, may have leading zeros.
+     * @param base - scale of notation.
+     * @return digits of the sum.
+     */
+    static byte[] sum(List<byte[]> terms, int base) {
+        int width = 0;
+        for (byte[] t : terms) width = Math.max(width, t.length);
+        long[] columns = new long[width];
+        for (byte[] t : terms) {
+            int shift = width - t.length;
+            for (int i = 0; i < t.length; i++) {
+                columns[shift + i] += t[i];
+            }
+        }
+
+        // Carry out of a column never exceeds the largest column sum,
+        // so its digits bound the digits added above the columns
+        long max = 0;
+        for (long c : columns) max = Math.max(max, c);
+        byte[] out = new byte[width + digitCount(max, base)];
+        int pos = out.length;
+        long carry = 0;
+        for (int i = width - 1; i >= 0; i--) {
+            long v = columns[i] + carry;
+            out[--pos] = (byte) (v % base);
+            carry = v / base;
+        }
+        while (carry > 0) {
+            out[--pos] = (byte) (carry % base);
+            carry /= base;
+        }
+        return strip(out, pos);
+    }
+
+    // Number of digits of a non-negative value, at least one
+    static int digitCount(long value, int base) {
+        int n = 1;
+        for (long v = value / base; v > 0; v /= base) n++;
+        return n;
+    }
+
+    /**
+     * Multiplies two numbers.
+     *
+     * @param a - first operand.
+     * @param b - second operand.
+     * @param base - scale of notation of both operands.
+     * @return digits of the product.
+     */
+    static byte[] multiply(byte[] a, byte[] b, int base) {
+        Radix.Table t = Radix.table(base);
+        int[] x = toWords(a, t);
+        int[] y = toWords(b, t);
+        if (x.length == 0 || y.length == 0) return ZERO.clone();
+        return fromWords(multiply(x, y, t.wordRadix), t);
+    }
+
+    /**
+     * Squares a number.
+     *
+     * @param a - operand.
+     * @param base - scale of notation.
+     * @return digits of the square.
+     */
+    static byte[] square(byte[] a, int base) {
+        return multiply(a, a, base);
+    }
+
+    /**
+     * Returns integer square root, the largest number whose square does not
+     * exceed the operand. Newton iteration <tt>x = (x + a / x) / 2</tt>
+     * starts above the root, from the square root of the leading words,
+     * and decreases until it stops.
+     *
+     * @param a - operand.
+     * @param base - scale of notation.
+     * @return digits of the square root.
+     */
+    static byte[] sqrt(byte[] a, int base) {
+        Radix.Table t = Radix.table(base);
+        int[] n = toWords(a, t);
+        if (n.length == 0) return ZERO.clone();
+        int radix = t.wordRadix;
+
+        // n / radix^2s has two or three words; the root of one more than
+        // that, rounded up, times radix^s is above the root of n
+        int s = Math.max(0, (n.length - 2) / 2);
+        double top = 0;
+        for (int i = n.length - 1; i >= 2 * s; i--) top = top * radix + n[i];
+        long root = (long) Math.ceil(Math.sqrt(top)) + 1;
+        int[] x = new int[s + 3];
+        for (int i = s; root > 0; i++, root /= radix) x[i] = (int) (root % radix);
+        x = trim(x);
+
+        while (true) {
+            int[] y = divide(add(x, divide(n, x, radix)[0], radix), 2, radix);
+            if (compare(y, x) >= 0) return fromWords(x, t);
+            x = y;
+        }
+    }
+
+    /**
+     * Raises a number to the power by left-to-right square-and-multiply.
+     * Zero to the power of zero is one.
+     *
+     * @param a - base of the power.
+     * @param exponent - non-negative exponent.
+     * @param base - scale of notation.
+     * @return digits of the power.
+     * @throws ArithmeticException if the result would have more than
+     *      <tt>Integer.MAX_VALUE</tt> digits.
+     */
+    static byte[] pow(byte[] a, int exponent, int base) {
+        Radix.Table t = Radix.table(base);
+        int[] x = toWords(a, t);
+        if (exponent == 0) return new byte[] {1};
+        if (x.length == 0) return ZERO.clone();
+        if (x.length > 1 || x[0] > 1) {
+            double digits = (Math.log(x[x.length - 1] + 1.0) / Math.log(base) + (x.length - 1) * t.digitsPerWord) * exponent;
+            if (digits > Integer.MAX_VALUE - 8) throw new ArithmeticException("Power is too large");
+        }
+        int[] r = x;
+        for (int bit = 30 - Integer.numberOfLeadingZeros(exponent); bit >= 0; bit--) {
+            r = trim(multiply(r, r, t.wordRadix));
+            if ((exponent >> bit & 1) != 0) r = trim(multiply(r, x, t.wordRadix));
+        }
+        return fromWords(r, t);
+    }
+
+    /**
+     * Returns greatest common divisor; <tt>gcd(0, 0)</tt> is zero.<p>
+     *
+     * Long operands are reduced by Lehmer's algorithm: quotients are
+     * found from the two leading words while they are sure to be those of
+     * the whole numbers, and applied at once as a 2x2 matrix of single
+     * word cofactors. When no quotient is sure, an exact division step is
+     * made. Operands which fit into a <tt>long</tt> finish with binary GCD.
+     *
+     * @param a - first operand.
+     * @param b - second operand.
+     * @param base - scale of notation of both operands.
+     * @return digits of the greatest common divisor.
+     */
+    static byte[] gcd(byte[] a, byte[] b, int base) {
+        Radix.Table t = Radix.table(base);
+        int radix = t.wordRadix;
+        int[] x = toWords(a, t);
+        int[] y = toWords(b, t);
+        if (compare(x, y) < 0) {
+            int[] tmp = x;
+            x = y;
+            y = tmp;
+        }
+        while (y.length > 2) {
+            int n = x.length;
+            long A = 1, B = 0, C = 0, D = 1;
+            if (y.length >= n - 1) {
+                long xh = (long) x[n - 1] * radix + x[n - 2];
+                long yh = (y.length == n ? (long) y[n - 1] * radix : 0) + y[n - 2];
+                while (yh + C != 0 && yh + D != 0) {
+                    long q = (xh + A) / (yh + C);
+                    if (q >= LEHMER_LIMIT || q != (xh + B) / (yh + D)) break;
+                    long c = A - q * C;
+                    long d = B - q * D;
+                    if (Math.abs(c) >= LEHMER_LIMIT || Math.abs(d) >= LEHMER_LIMIT) break;
+                    A = C;
+                    B = D;
+                    C = c;
+                    D = d;
+                    long r = xh - q * yh;
+                    xh = yh;
+                    yh = r;
+                }
+            }
+            if (B == 0) {
+                int[] r = divide(x, y, radix)[1];
+                x = y;
+                y = r;
+            } else {
+                int[] nx = combine(x, A, y, B, radix);
+                y = combine(x, C, y, D, radix);
+                x = nx;
+            }
+        }
+        if (y.length == 0) return fromWords(x, t);
+        if (x.length > 2) {
+            int[] r = divide(x, y, radix)[1];
+            x = y;
+            y = r;
+        }
+        long g = gcd(value(x, radix), value(y, radix));
+        byte[] out = new byte[64];
+        int pos = out.length;
+        do {
+            out[--pos] = (byte) (g % base);
+            g /= base;
+        } while (g > 0);
+        return Arrays.copyOfRange(out, pos, out.length);
+    }
+
+    // Binary GCD of non-negative values
+    static long gcd(long u, long v) {
+        if (u == 0) return v;
+        if (v == 0) return u;
+        int shift = Long.numberOfTrailingZeros(u | v);
+        u >>= Long.numberOfTrailingZeros(u);
+        do {
+            v >>= Long.numberOfTrailingZeros(v);
+            if (u > v) {
+                long tmp = u;
+                u = v;
+                v = tmp;
+            }
+            v -= u;
+        } while (v != 0);
+        return u << shift;
+    }
+
+    // Packs digits into words, least significant word first,
+    // skipping leading zero words
+    static int[] toWords(byte[] digits, Radix.Table t) {
+        int k = t.digitsPerWord;
+        int n = (digits.length + k - 1) / k;
+        int[] words = new int[n];
+        int end = digits.length;
+        for (int w = 0; w < n; w++) {
+            int start = Math.max(0, end - k);
+            int value = 0;
+            for (int i = start; i < end; i++) {
+                value = value * t.base + digits[i];
+            }
+            words[w] = value;
+            end = start;
+        }
+        while (n > 0 && words[n - 1] == 0) n--;
+        return n == words.length ? words : Arrays.copyOf(words, n);
+    }
+
+    // Unpacks words, least significant first, into digits
+    static byte[] fromWords(int[] words, Radix.Table t) {
+        int k = t.digitsPerWord;
+        byte[] out = new byte[Math.max(1, words.length * k)];
+        int pos = out.length;
+        for (int w = 0; w < words.length; w++) {
+            int value = words[w];
+            for (int j = 0; j < k; j++) {
+                out[--pos] = (byte) (value % t.base);
+                value /= t.base;
+            }
+        }
+        return strip(out, 0);
+    }
+
+    // Product of word arrays, least significant word first
+    static int[] multiply(int[] a, int[] b, int radix) {
+        if (a.length < b.length) {
+            int[] t = a;
+            a = b;
+            b = t;
+        }
+        if (b.length < KARATSUBA_THRESHOLD) return schoolbook(a, b, radix);
+        if (b.length <= a.length / 2) {
+            // Unbalanced operands: multiply by slices of the longer one
+            int[] r = new int[a.length + b.length];
+            for (int off = 0; off < a.length; off += b.length) {
+                int len = Math.min(b.length, a.length - off);
+                int[] slice = Arrays.copyOfRange(a, off, off + len);
+                addShifted(r, multiply(slice, b, radix), off, radix);
+            }
+            return r;
+        }
+        return karatsuba(a, b, radix);
+    }
+
+    private static int[] schoolbook(int[] a, int[] b, int radix) {
+        int[] r = new int[a.length + b.length];
+        for (int j = 0; j < b.length; j++) {
+            long bj = b[j];
+            if (bj == 0) continue;
+            long carry = 0;
+            for (int i = 0; i < a.length; i++) {
+                long v = r[i + j] + a[i] * bj + carry;
+                r[i + j] = (int) (v % radix);
+                carry = v / radix;
+            }
+            r[j + a.length] = (int) carry;
+        }
+        return r;
+    }
+
+    // a = a1 * W^h + a0, b = b1 * W^h + b0,
+    // a * b = z2 * W^2h + ((a0 + a1)(b0 + b1) - z2 - z0) * W^h + z0
+    private static int[] karatsuba(int[] a, int[] b, int radix) {
+        int h = a.length / 2;
+        int[] a0 = Arrays.copyOfRange(a, 0, h);
+        int[] a1 = Arrays.copyOfRange(a, h, a.length);
+        int[] b0 = Arrays.copyOfRange(b, 0, Math.min(h, b.length));
+        int[] b1 = Arrays.copyOfRange(b, Math.min(h, b.length), b.length);
+
+        int[] z0 = multiply(a0, b0, radix);
+        int[] z2 = multiply(a1, b1, radix);
+        int[] z1 = multiply(add(a0, a1, radix), add(b0, b1, radix), radix);
+        subtract(z1, z0, radix);
+        subtract(z1, z2, radix);
+
+        int[] r = new int[a.length + b.length + 1];
+        addShifted(r, z0, 0, radix);
+        addShifted(r, z1, h, radix);
+        addShifted(r, z2, 2 * h, radix);
+        return Arrays.copyOf(r, a.length + b.length);
+    }
+
+    // x + y, with a carry word on top
+    static int[] add(int[] x, int[] y, int radix) {
+        if (x.length < y.length) {
+            int[] t = x;
+            x = y;
+            y = t;
+        }
+        int[] r = new int[x.length + 1];
+        long carry = 0;
+        for (int i = 0; i < x.length; i++) {
+            long v = (long) x[i] + (i < y.length ? y[i] : 0) + carry;
+            carry = v >= radix ? 1 : 0;
+            r[i] = (int) (v - carry * radix);
+        }
+        r[x.length] = (int) carry;
+        return r;
+    }
+
+    // x -= y, the difference has to be non-negative
+    private static void subtract(int[] x, int[] y, int radix) {
+        int borrow = 0;
+        int i = 0;
+        for (; i < y.length; i++) {
+            long v = (long) x[i] - y[i] - borrow;
+            borrow = v < 0 ? 1 : 0;
+            x[i] = (int) (v + borrow * (long) radix);
+        }
+        for (; borrow != 0; i++) {
+            borrow = x[i] == 0 ? 1 : 0;
+            x[i] = borrow == 0 ? x[i] - 1 : radix - 1;
+        }
+    }
+
+    // r += x * W^shift, the sum has to fit into r
+    private static void addShifted(int[] r, int[] x, int shift, int radix) {
+        long carry = 0;
+        int i = 0;
+        for (; i < x.length; i++) {
+            if (shift + i >= r.length) break;
+            long v = (long) r[shift + i] + x[i] + carry;
+            carry = v >= radix ? 1 : 0;
+            r[shift + i] = (int) (v - carry * radix);
+        }
+        for (int j = shift + i; carry != 0; j++) {
+            long v = r[j] + carry;
+            carry = v >= radix ? 1 : 0;
+            r[j] = (int) (v - carry * radix);
+        }
+    }
+
+    // Drops leading zero words
+    static int[] trim(int[] a) {
+        int n = a.length;
+        while (n > 0 && a[n - 1] == 0) n--;
+        return n == a.length ? a : Arrays.copyOf(a, n);
+    }
+
+    // Compares word arrays, which may have leading zero words
+    static int compare(int[] a, int[] b) {
+        int n = a.length;
+        while (n > 0 && a[n - 1] == 0) n--;
+        int m = b.length;
+        while (m > 0 && b[m - 1] == 0) m--;
+        if (n != m) return n < m ? -1 : 1;
+        for (int i = n - 1; i >= 0; i--) {
+            if (a[i] != b[i]) return a[i] < b[i] ? -1 : 1;
+        }
+        return 0;
+    }
+
+    // Value of at most two words
+    private static long value(int[] a, int radix) {
+        return a.length == 0 ? 0 : a.length == 1 ? a[0] : (long) a[1] * radix + a[0];
+    }
+
+    // Quotient of a by a single word, without leading zero words
+    static int[] divide(int[] a, int d, int radix) {
+        int[] q = new int[a.length];
+        long r = 0;
+        for (int i = a.length - 1; i >= 0; i--) {
+            long v = r * radix + a[i];
+            q[i] = (int) (v / d);
+            r = v % d;
+        }
+        return trim(q);
+    }
+
+    // a * d in a new array of the given length, which has to hold it
+    private static int[] multiply(int[] a, int d, int radix, int length) {
+        int[] r = new int[length];
+        long carry = 0;
+        for (int i = 0; i < length; i++) {
+            long v = (i < a.length ? (long) a[i] * d : 0) + carry;
+            r[i] = (int) (v % radix);
+            carry = v / radix;
+        }
+        return r;
+    }
+
+    // Quotient and remainder of u by non-zero v, without leading zero words.
+    // Knuth's algorithm D: the divisor is normalized so that its leading
+    // word is at least radix / 2, then each quotient word is estimated from
+    // the leading words and corrected at most twice, or once more by adding
+    // the divisor back.
+    static int[][] divide(int[] u, int[] v, int radix) {
+        u = trim(u);
+        v = trim(v);
+        int n = v.length;
+        if (compare(u, v) < 0) return new int[][] {new int[0], u};
+        if (n == 1) {
+            int[] q = new int[u.length];
+            long r = 0;
+            for (int i = u.length - 1; i >= 0; i--) {
+                long w = r * radix + u[i];
+                q[i] = (int) (w / v[0]);
+                r = w % v[0];
+            }
+            return new int[][] {trim(q), r == 0 ? new int[0] : new int[] {(int) r}};
+        }
+        int d = radix / (v[n - 1] + 1);
+        int[] un = multiply(u, d, radix, u.length + 1);
+        int[] vn = multiply(v, d, radix, n);
+        long top = vn[n - 1];
+        long next = vn[n - 2];
+        int m = u.length - n;
+        int[] q = new int[m + 1];
+        for (int j = m; j >= 0; j--) {
+            long num = (long) un[j + n] * radix + un[j + n - 1];
+            long qhat = num / top;
+            long rhat = num % top;
+            while (qhat >= radix || qhat * next > rhat * radix + un[j + n - 2]) {
+                qhat--;
+                rhat += top;
+                if (rhat >= radix) break;
+            }
+            long carry = 0;
+            long borrow = 0;
+            for (int i = 0; i < n; i++) {
+                long p = qhat * vn[i] + carry;
+                carry = p / radix;
+                long w = un[i + j] - p % radix - borrow;
+                borrow = w < 0 ? 1 : 0;
+                un[i + j] = (int) (w + borrow * radix);
+            }
+            long w = un[j + n] - carry - borrow;
+            if (w < 0) {
+                qhat--;
+                un[j + n] = (int) (w + radix);
+                carry = 0;
+                for (int i = 0; i < n; i++) {
+                    long s = (long) un[i + j] + vn[i] + carry;
+                    carry = s >= radix ? 1 : 0;
+                    un[i + j] = (int) (s - carry * radix);
+                }
+                un[j + n] = (int) ((un[j + n] + carry) % radix);
+            } else {
+                un[j + n] = (int) w;
+            }
+            q[j] = (int) qhat;
+        }
+        return new int[][] {trim(q), divide(Arrays.copyOf(un, n), d, radix)};
+    }
+
+    // p * x + q * y for cofactors below LEHMER_LIMIT, the result has to be
+    // non-negative
+    private static int[] combine(int[] x, long p, int[] y, long q, int radix) {
+        int[] r = new int[x.length];
+        long carry = 0;
+        for (int i = 0; i < x.length; i++) {
+            long v = p * x[i] + (i < y.length ? q * y[i] : 0) + carry;
+            carry = Math.floorDiv(v, radix);
+            r[i] = (int) (v - carry * radix);
+        }
+        return trim(r);
+    }
+
+    private static byte[] strip(byte[] digits, int from) {
+        while (from < digits.length - 1 && digits[from] == 0) from++;
+        if (from == digits.length) return ZERO.clone();
+        if (from == 0) return digits;
+        return Arrays.copyOfRange(digits, from, digits.length);
+    }
+}
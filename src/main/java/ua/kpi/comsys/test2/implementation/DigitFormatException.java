@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+/**
+ * Thrown when textual number contains character which is not a digit
+ * of the expected scale of notation, or is misplaced.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+public class DigitFormatException extends NumberFormatException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long position;
+    private final int character;
+
+    /**
+     * Constructs exception for the invalid character.
+     *
+     * @param position - offset of the character from the start of input.
+     * @param character - character or byte value.
+     */
+    public DigitFormatException(long position, int character) {
+        super("Unexpected character " + describe(character) + " at offset " + position);
+        this.position = position;
+        this.character = character;
+    }
+
+    private static String describe(int c) {
+        if (c > ' ' && c < 0x7F) return "'" + (char) c + "'";
+        return "0x" + Integer.toHexString(c);
+    }
+
+    /**
+     * Returns offset of the invalid character from the start of input.
+     *
+     * @return offset of the invalid character.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns the invalid character, or byte value for binary input.
+     *
+     * @return invalid character.
+     */
+    public int getCharacter() {
+        return character;
+    }
+}
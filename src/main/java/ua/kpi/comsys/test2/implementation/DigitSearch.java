@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntPredicate;
+
+/**
+ * Digit and digit sequence search over chunked digit storage.<p>
+ *
+ * Single digits are found eight at a time: a word of digits is XOR-ed
+ * with the searched digit repeated in every byte, and zero bytes of the
+ * result are detected with carry-free bit tricks (SWAR). Longer patterns
+ * are matched with Boyer-Moore-Horspool. Chunks are streamed through a
+ * small buffer which keeps the last <tt>pattern.length - 1</tt> digits of
+ * the previous chunks, so matches crossing chunk borders are found without
+ * copying the whole number.<p>
+ *
+ * Occurrences may overlap. Parallel search splits chunks between fork-join
+ * tasks, each of which reports matches starting in its own chunks.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+final class DigitSearch {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+
+    // Chunks per parallel task
+    static final int PARALLEL_CHUNKS = 64;
+
+    /**
+     * Digit ranges of the storage chunks, in order:
+     * chunk i holds digits arrays[i][starts[i]..ends[i]) and its first
+     * digit has index offsets[i] in the list; offsets[count] is the size.
+     */
+    static final class Segments {
+        final byte[][] arrays;
+        final int[] starts;
+        final int[] ends;
+        final int[] offsets;
+        final int count;
+        final int maxLength;
+
+        Segments(byte[][] arrays, int[] starts, int[] ends) {
+            this.arrays = arrays;
+            this.starts = starts;
+            this.ends = ends;
+            this.count = arrays.length;
+            this.offsets = new int[count + 1];
+            int max = 0;
+            for (int i = 0; i < count; i++) {
+                int n = ends[i] - starts[i];
+                offsets[i + 1] = offsets[i] + n;
+                max = Math.max(max, n);
+            }
+            this.maxLength = max;
+        }
+    }
+
+    private DigitSearch() {
+    }
+
+    // High bit set in every byte of x which is zero, exact for all bytes
+    private static long zeroBytes(long x) {
+        long t = (x & LOW7) + LOW7;
+        return ~(t | x | LOW7);
+    }
+
+    /**
+     * Returns index of the first digit in range, or -1.
+     */
+    static int indexOf(byte[] a, int from, int to, byte digit) {
+        long pattern = (digit & 0xFFL) * ONES;
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long mask = zeroBytes((long) LONGS.get(a, i) ^ pattern);
+            if (mask != 0) return i + (Long.numberOfTrailingZeros(mask) >>> 3);
+        }
+        for (; i < to; i++) {
+            if (a[i] == digit) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns index of the last digit in range, or -1.
+     */
+    static int lastIndexOf(byte[] a, int from, int to, byte digit) {
+        long pattern = (digit & 0xFFL) * ONES;
+        int i = to;
+        for (; i - Long.BYTES >= from; i -= Long.BYTES) {
+            long mask = zeroBytes((long) LONGS.get(a, i - Long.BYTES) ^ pattern);
+            if (mask != 0) return i - Long.BYTES + ((63 - Long.numberOfLeadingZeros(mask)) >>> 3);
+        }
+        for (i--; i >= from; i--) {
+            if (a[i] == digit) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns number of digits in range.
+     */
+    static int count(byte[] a, int from, int to, byte digit) {
+        long pattern = (digit & 0xFFL) * ONES;
+        int n = 0;
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            n += Long.bitCount(zeroBytes((long) LONGS.get(a, i) ^ pattern));
+        }
+        for (; i < to; i++) {
+            if (a[i] == digit) n++;
+        }
+        return n;
+    }
+
+    /**
+     * Reports indexes of the pattern occurrences starting in chunks
+     * [from, to), in increasing order, while the sink returns <tt>true</tt>.
+     *
+     * @return <tt>false</tt> if the sink stopped the search.
+     */
+    static boolean find(Segments s, int from, int to, byte[] pattern, IntPredicate sink) {
+        int m = pattern.length;
+        if (m == 1) {
+            for (int c = from; c < to; c++) {
+                byte[] a = s.arrays[c];
+                int base = s.offsets[c] - s.starts[c];
+                for (int i = indexOf(a, s.starts[c], s.ends[c], pattern[0]); i >= 0;
+                     i = indexOf(a, i + 1, s.ends[c], pattern[0])) {
+                    if (!sink.test(base + i)) return false;
+                }
+            }
+            return true;
+        }
+
+        int[] shift = new int[256];
+        Arrays.fill(shift, m);
+        for (int i = 0; i < m - 1; i++) {
+            shift[pattern[i] & 0xFF] = m - 1 - i;
+        }
+
+        int limit = s.offsets[to];
+        byte[] buffer = new byte[m - 1 + s.maxLength];
+        int length = 0;
+        int first = s.offsets[from];
+        for (int c = from; c < s.count; c++) {
+            int n = s.ends[c] - s.starts[c];
+            System.arraycopy(s.arrays[c], s.starts[c], buffer, length, n);
+            length += n;
+
+            int last = Math.min(length - m, limit - 1 - first);
+            if (!horspool(buffer, last, pattern, shift, first, sink)) return false;
+
+            int keep = Math.min(m - 1, length);
+            if (first + length - keep >= limit) break;
+            System.arraycopy(buffer, length - keep, buffer, 0, keep);
+            first += length - keep;
+            length = keep;
+        }
+        return true;
+    }
+
+    // Matches windows starting at 0..last of the buffer
+    private static boolean horspool(byte[] text, int last, byte[] pattern, int[] shift, int first,
+                                    IntPredicate sink) {
+        int m = pattern.length;
+        byte tail = pattern[m - 1];
+        int i = 0;
+        while (i <= last) {
+            byte b = text[i + m - 1];
+            if (b == tail && Arrays.equals(text, i, i + m - 1, pattern, 0, m - 1)) {
+                if (!sink.test(first + i)) return false;
+            }
+            i += shift[b & 0xFF];
+        }
+        return true;
+    }
+
+    /**
+     * Returns indexes of all occurrences, in increasing order.
+     */
+    static int[] findAll(Segments s, byte[] pattern, boolean parallel) {
+        if (parallel && s.count > PARALLEL_CHUNKS) {
+            return ForkJoinPool.commonPool().invoke(new FindTask(s, pattern, 0, s.count));
+        }
+        return collect(s, 0, s.count, pattern);
+    }
+
+    /**
+     * Returns number of occurrences.
+     */
+    static int countAll(Segments s, byte[] pattern, boolean parallel) {
+        if (pattern.length == 1) {
+            int n = 0;
+            for (int c = 0; c < s.count; c++) {
+                n += count(s.arrays[c], s.starts[c], s.ends[c], pattern[0]);
+            }
+            return n;
+        }
+        if (parallel && s.count > PARALLEL_CHUNKS) {
+            return ForkJoinPool.commonPool().invoke(new FindTask(s, pattern, 0, s.count)).length;
+        }
+        int[] n = new int[1];
+        find(s, 0, s.count, pattern, i -> {
+            n[0]++;
+            return true;
+        });
+        return n[0];
+    }
+
+    private static int[] collect(Segments s, int from, int to, byte[] pattern) {
+        int[][] found = {new int[16]};
+        int[] n = new int[1];
+        find(s, from, to, pattern, i -> {
+            if (n[0] == found[0].length) found[0] = Arrays.copyOf(found[0], n[0] * 2);
+            found[0][n[0]++] = i;
+            return true;
+        });
+        return Arrays.copyOf(found[0], n[0]);
+    }
+
+    private static final class FindTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final Segments segments;
+        private final byte[] pattern;
+        private final int from;
+        private final int to;
+
+        FindTask(Segments segments, byte[] pattern, int from, int to) {
+            this.segments = segments;
+            this.pattern = pattern;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= PARALLEL_CHUNKS) return collect(segments, from, to, pattern);
+            int mid = (from + to) >>> 1;
+            FindTask right = new FindTask(segments, pattern, mid, to);
+            right.fork();
+            int[] a = new FindTask(segments, pattern, from, mid).compute();
+            int[] b = right.join();
+            int[] all = Arrays.copyOf(a, a.length + b.length);
+            System.arraycopy(b, 0, all, a.length, b.length);
+            return all;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import ua.kpi.comsys.test2.NumberList;
+
+/**
+ * Read-only <tt>NumberList</tt> backed by a saved file.<p>
+ *
+ * Works with both <b>decimal</b> text files, as written by
+ * {@link NumberListImpl#saveList(java.io.File)}, and files in
+ * {@link PackedNumberFormat packed format}. The size is taken from file
+ * metadata, and digits are read in pages on demand through a bounded LRU
+ * page cache, so inspecting a few digits of a huge number reads only
+ * the pages that contain them.<p>
+ *
+ * Text files have to contain single line of digits, optionally surrounded
+ * by whitespace; other characters are reported with
+ * {@link DigitFormatException} when the page containing them is read.
+ * I/O errors are reported with <tt>UncheckedIOException</tt>.<p>
+ *
+ * The list is safe for concurrent reading and has to be closed to release
+ * the file.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+public class FileNumberList extends AbstractList<Byte> implements NumberList, RandomAccess, Closeable {
+
+    /**
+     * Default number of pages kept in memory.
+     */
+    public static final int DEFAULT_CACHE_PAGES = 16;
+
+    static final int TEXT_PAGE_SIZE = 64 * 1024;
+
+    // Estimated shallow sizes of the list with its empty cache,
+    // and of a cache entry with its page array header
+    private static final int LIST_BYTES = 128;
+    private static final int PAGE_ENTRY_BYTES = 72;
+
+    private final PageSource source;
+    private final int pageSize;
+    private final long size;
+    private final Map<Long, byte[]> cache;
+    private long pageLoads;
+
+    private FileNumberList(PageSource source, int cachePages) {
+        this.source = source;
+        this.pageSize = source.pageSize();
+        this.size = source.size();
+        this.cache = new LinkedHashMap<Long, byte[]>(cachePages * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                return size() > cachePages;
+            }
+        };
+    }
+
+    /**
+     * Opens file with default page cache size.
+     *
+     * @param path - decimal text or packed file.
+     * @return read-only list of the file digits.
+     * @throws IOException if file cannot be opened or has invalid header.
+     */
+    public static FileNumberList open(Path path) throws IOException {
+        return open(path, DEFAULT_CACHE_PAGES);
+    }
+
+    /**
+     * Opens file, keeping at most <tt>cachePages</tt> pages in memory.
+     *
+     * @param path - decimal text or packed file.
+     * @param cachePages - maximal number of cached pages.
+     * @return read-only list of the file digits.
+     * @throws IOException if file cannot be opened or has invalid header.
+     */
+    public static FileNumberList open(Path path, int cachePages) throws IOException {
+        if (cachePages <= 0) throw new IllegalArgumentException("Cache size: " + cachePages);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        PageSource source;
+        try {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic, magic.position()) >= 0) {
+                // read up to 4 bytes
+            }
+            if (magic.position() == 4 && magic.getInt(0) == PackedNumberFormat.MAGIC) {
+                channel.close();
+                source = new PackedPages(new PackedNumberFormat.BlockReader(path));
+            } else {
+                source = new TextPages(channel);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return new FileNumberList(source, cachePages);
+    }
+
+    /**
+     * Returns base of the scale of notation the digits are stored in.
+     *
+     * @return base of the scale of notation.
+     */
+    public int getBase() {
+        return source.base();
+    }
+
+    /**
+     * Returns number of digits, which may exceed <tt>Integer.MAX_VALUE</tt>.
+     *
+     * @return number of digits.
+     */
+    public long longSize() {
+        return size;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Byte get(int index) {
+        return digitAt(index);
+    }
+
+    /**
+     * Returns digit at the specified position.
+     *
+     * @param index - digit index, most significant digit has index 0.
+     * @return digit value.
+     */
+    public byte digitAt(long index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index);
+        return page(index / pageSize)[(int) (index % pageSize)];
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof Byte)) return -1;
+        byte d = (Byte) o;
+        int n = size();
+        for (long from = 0; from < n; from += pageSize) {
+            byte[] page = page(from / pageSize);
+            int len = (int) Math.min(page.length, n - from);
+            for (int i = 0; i < len; i++) {
+                if (page[i] == d) return (int) (from + i);
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        if (!(o instanceof Byte)) return -1;
+        byte d = (Byte) o;
+        int n = size();
+        for (long from = (n - 1L) / pageSize * pageSize; from >= 0 && n > 0; from -= pageSize) {
+            byte[] page = page(from / pageSize);
+            for (int i = (int) Math.min(page.length, n - from) - 1; i >= 0; i--) {
+                if (page[i] == d) return (int) (from + i);
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) != -1;
+    }
+
+    /**
+     * Reads all digits into new modifiable <tt>NumberListImpl</tt>.
+     *
+     * @return list with the same digits and scale of notation.
+     */
+    public NumberListImpl toNumberList() {
+        byte[] digits = new byte[Math.toIntExact(size)];
+        for (int i = 0; i < digits.length; i += pageSize) {
+            byte[] page = page(i / pageSize);
+            System.arraycopy(page, 0, digits, i, page.length);
+        }
+        return NumberListImpl.fromDigits(digits, getBase());
+    }
+
+    // Returns cached page or reads it from the file
+    private byte[] page(long index) {
+        synchronized (cache) {
+            byte[] page = cache.get(index);
+            if (page == null) {
+                try {
+                    page = source.readPage(index);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                pageLoads++;
+                cache.put(index, page);
+            }
+            return page;
+        }
+    }
+
+    // Number of pages read from the file so far
+    long pageLoads() {
+        synchronized (cache) {
+            return pageLoads;
+        }
+    }
+
+    /**
+     * Returns estimated number of bytes of the pages cached in memory.
+     * Digits which are only in the file are not counted.
+     *
+     * @return estimated footprint in bytes.
+     */
+    public long estimatedFootprintBytes() {
+        long n = 0;
+        synchronized (cache) {
+            for (byte[] page : cache.values()) n += PAGE_ENTRY_BYTES + page.length;
+        }
+        return LIST_BYTES + n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (cache) {
+            cache.clear();
+        }
+        source.close();
+    }
+
+    @Override
+    public boolean swap(int index1, int index2) {
+        throw new UnsupportedOperationException("List is read-only");
+    }
+
+    @Override
+    public void sortAscending() {
+        throw new UnsupportedOperationException("List is read-only");
+    }
+
+    @Override
+    public void sortDescending() {
+        throw new UnsupportedOperationException("List is read-only");
+    }
+
+    @Override
+    public void shiftLeft() {
+        throw new UnsupportedOperationException("List is read-only");
+    }
+
+    @Override
+    public void shiftRight() {
+        throw new UnsupportedOperationException("List is read-only");
+    }
+
+    // Source of fixed size pages of digits, the last page may be shorter
+    private interface PageSource extends Closeable {
+        int base();
+        long size();
+        int pageSize();
+        byte[] readPage(long index) throws IOException;
+    }
+
+    // Pages are blocks of the packed format
+    private static final class PackedPages implements PageSource {
+        private final PackedNumberFormat.BlockReader reader;
+
+        PackedPages(PackedNumberFormat.BlockReader reader) {
+            this.reader = reader;
+        }
+
+        @Override public int base() { return reader.getBase(); }
+        @Override public long size() { return reader.size(); }
+        @Override public int pageSize() { return reader.getBlockDigits(); }
+
+        @Override
+        public byte[] readPage(long index) throws IOException {
+            return reader.readBlock((int) index);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    // Pages are ranges of characters of a decimal text file
+    private static final class TextPages implements PageSource {
+        private final FileChannel channel;
+        private final long start;
+        private final long size;
+
+        TextPages(FileChannel channel) throws IOException {
+            this.channel = channel;
+            long length = channel.size();
+            long from = 0;
+            while (from < length && isSpace(byteAt(from))) from++;
+            long to = length;
+            while (to > from && isSpace(byteAt(to - 1))) to--;
+            this.start = from;
+            this.size = to - from;
+        }
+
+        private static boolean isSpace(int b) {
+            return b >= 0 && b <= ' ';
+        }
+
+        private int byteAt(long position) throws IOException {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            if (channel.read(b, position) <= 0) throw new IOException("Unexpected end of file");
+            return b.get(0);
+        }
+
+        @Override public int base() { return 10; }
+        @Override public long size() { return size; }
+        @Override public int pageSize() { return TEXT_PAGE_SIZE; }
+
+        @Override
+        public byte[] readPage(long index) throws IOException {
+            long from = index * TEXT_PAGE_SIZE;
+            int len = (int) Math.min(TEXT_PAGE_SIZE, size - from);
+            ByteBuffer buffer = ByteBuffer.allocate(len);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + from + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of file");
+                }
+            }
+            byte[] page = buffer.array();
+            for (int i = 0; i < len; i++) {
+                int d = page[i] - '0';
+                if (d < 0 || d > 9) {
+                    throw new DigitFormatException(start + from + i, page[i] & 0xFF);
+                }
+                page[i] = (byte) d;
+            }
+            return page;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
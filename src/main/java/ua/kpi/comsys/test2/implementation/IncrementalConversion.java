@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.util.Arrays;
+
+/**
+ * Number in another scale of notation, kept up to date while the source
+ * number changes, as by {@link NumberListImpl#changeScale(int)}.<p>
+ *
+ * The conversion is done once, and a copy of the source digits is kept.
+ * Later, {@link #value()} asks the source which digits it changed in place
+ * since then, with {@link NumberListImpl#changedRanges(long)}, and adds
+ * <tt>(new - old) * base^position</tt> of every changed digit to the
+ * converted digits:
+ * <ul>
+ * <li>when both bases are powers of a common root, as 2, 8 and 16, or
+ * 3 and 9, the term is a single target digit times a power of the root,
+ * and a change costs amortized constant time;</li>
+ * <li>otherwise the term is multiplied out in the target base from cached
+ * squares of the source base, so a change costs about a Karatsuba product
+ * of the length of its position, in place of the quadratic conversion of
+ * the whole number.</li>
+ * </ul>
+ * When the source was resized, or too many digits changed, the number is
+ * converted anew.<p>
+ *
+ * The class is not thread-safe.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+public final class IncrementalConversion {
+
+    // Source digits changed since the previous update above which the
+    // number is converted anew: a share of the length for common root
+    // bases, a count for others
+    private static final int REBUILD_SHIFT = 4;
+    private static final int PATCH_LIMIT = 32;
+
+    private final NumberListImpl source;
+    private final int from;
+    private final int to;
+    private final Radix.Table target;
+
+    // from = root^fromExp, to = root^toExp, or root = 0 without common root
+    private final int root;
+    private final int fromExp;
+    private final int toExp;
+
+    // Words of from^(2^i) in the target base, least significant first
+    private final Radix.Squares squares;
+
+    private byte[] seen;
+    private long version;
+    private byte[] digits;
+    private int rebuilds;
+
+    /**
+     * Creates number converted from the source.
+     *
+     * @param source - number to convert, which is only read.
+     * @param targetBase - target scale of notation.
+     * @throws IllegalArgumentException if target base is not supported.
+     * @throws NumberFormatException if some digit is out of range for the
+     *      source base.
+     */
+    public IncrementalConversion(NumberListImpl source, int targetBase) {
+        Radix.checkBase(targetBase);
+        this.source = source;
+        this.from = source.getBase();
+        this.to = targetBase;
+        this.target = Radix.table(targetBase);
+        this.squares = new Radix.Squares(from, targetBase);
+        int r = 0;
+        int a = 0;
+        int b = 0;
+        for (int candidate = 2; candidate <= Radix.MAX_BASE && r == 0; candidate++) {
+            a = exponent(from, candidate);
+            b = exponent(to, candidate);
+            if (a > 0 && b > 0) r = candidate;
+        }
+        this.root = r;
+        this.fromExp = a;
+        this.toExp = b;
+        rebuild();
+    }
+
+    // Returns e such that base = root^e, or 0
+    private static int exponent(int base, int root) {
+        int e = 0;
+        for (int p = 1; p < base; p *= root) e++;
+        int p = 1;
+        for (int i = 0; i < e; i++) p *= root;
+        return p == base ? e : 0;
+    }
+
+    /**
+     * Returns the current value of the source in the target base, updating
+     * it with the digits changed since the previous call.
+     *
+     * @return new list in the target base, without leading zeros.
+     * @throws NumberFormatException if some digit is out of range for the
+     *      source base.
+     */
+    public NumberListImpl value() {
+        refresh();
+        int lead = 0;
+        while (lead < digits.length - 1 && digits[lead] == 0) lead++;
+        NumberListImpl result = NumberListImpl.fromDigits(Arrays.copyOfRange(digits, lead, digits.length), to);
+        result.setCanonical(source.isCanonical());
+        return result;
+    }
+
+    // Number of times the number was converted anew, for tests
+    int rebuilds() {
+        return rebuilds;
+    }
+
+    private void refresh() {
+        int[] ranges = source.changedRanges(version);
+        if (ranges == null) {
+            rebuild();
+            return;
+        }
+        long changed = 0;
+        for (int r = 0; r < ranges.length; r += 2) changed += ranges[r + 1] - ranges[r];
+        if (root != 0 ? changed > seen.length >> REBUILD_SHIFT : changed > PATCH_LIMIT) {
+            rebuild();
+            return;
+        }
+        for (int r = 0; r < ranges.length; r += 2) {
+            for (int index = ranges[r]; index < ranges[r + 1]; index++) {
+                byte digit = source.get(index);
+                if (digit == seen[index]) continue;
+                if (digit < 0 || digit >= from) {
+                    throw new NumberFormatException("Digit " + digit + " at position " + index
+                            + " is out of range for base " + from);
+                }
+                int position = seen.length - 1 - index;
+                if (root != 0) {
+                    // from^position = to^q * root^s
+                    long bits = (long) position * fromExp;
+                    int s = (int) (bits % toExp);
+                    int factor = 1;
+                    for (int i = 0; i < s; i++) factor *= root;
+                    add((int) (bits / toExp), (digit - seen[index]) * factor);
+                } else {
+                    addTerm(position, digit - seen[index]);
+                }
+                seen[index] = digit;
+            }
+        }
+        version = source.version();
+    }
+
+    // Adds delta * to^position; the number stays non-negative, so a
+    // borrow stops before the most significant digit
+    private void add(int position, int delta) {
+        int i = digits.length - 1 - position;
+        while (delta != 0) {
+            int v = digits[i] + delta;
+            delta = Math.floorDiv(v, to);
+            digits[i--] = (byte) (v - delta * to);
+        }
+    }
+
+    // Adds delta * from^position, multiplied out in the target base
+    private void addTerm(int position, int delta) {
+        int[] words = {Math.abs(delta)};
+        for (int bit = 0; position >> bit != 0; bit++) {
+            if ((position >> bit & 1) != 0) words = DigitArithmetic.multiply(words, squares.get(bit), target.wordRadix);
+        }
+        byte[] term = DigitArithmetic.fromWords(words, target);
+        int sign = Integer.signum(delta);
+        int carry = 0;
+        int i = digits.length - 1;
+        for (int j = term.length - 1; j >= 0; j--, i--) {
+            int v = digits[i] + sign * term[j] + carry;
+            carry = Math.floorDiv(v, to);
+            digits[i] = (byte) (v - carry * to);
+        }
+        for (; carry != 0; i--) {
+            int v = digits[i] + carry;
+            carry = Math.floorDiv(v, to);
+            digits[i] = (byte) (v - carry * to);
+        }
+    }
+
+    private void rebuild() {
+        version = source.version();
+        seen = source.toDigitArray();
+        byte[] converted = Radix.convert(seen, from, to);
+        // Any number of seen.length source digits fits into the width
+        int width = (int) Math.ceil(seen.length * Radix.table(from).log2 / target.log2) + 2;
+        digits = new byte[Math.max(width, converted.length)];
+        System.arraycopy(converted, 0, digits, digits.length - converted.length, converted.length);
+        rebuilds++;
+    }
+}
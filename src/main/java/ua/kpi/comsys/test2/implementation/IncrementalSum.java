@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Sum of numbers, kept up to date while the numbers change.<p>
+ *
+ * The sum is computed once, together with a copy of the digits of every
+ * operand. Later, {@link #value()} asks the operands which digits they
+ * changed in place since then, with
+ * {@link NumberListImpl#changedRanges(long)}, and adds the difference of
+ * every changed digit to the sum at its position, carrying only as far as
+ * the carry goes. So a <tt>set</tt> or <tt>swap</tt> of a few digits costs
+ * amortized constant time, whatever the length of the numbers. When an
+ * operand was resized, or a large share of digits changed, the sum is
+ * computed anew.<p>
+ *
+ * Operands have to be in the same scale of notation. The class is not
+ * thread-safe.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+public final class IncrementalSum {
+
+    // The sum is computed anew, at the cost of reading all operand digits,
+    // when more than digits >> REBUILD_SHIFT of them have changed, but
+    // a change log full of edits is always patched
+    private static final int REBUILD_SHIFT = 4;
+
+    private final NumberListImpl[] operands;
+    private final int base;
+    private final byte[][] seen;
+    private final long[] versions;
+    private byte[] sum;
+    private long digits;
+    private int rebuilds;
+
+    /**
+     * Creates sum of the numbers. An empty collection gives <b>decimal</b>
+     * zero.
+     *
+     * @param operands - numbers in the same scale of notation, which are
+     *      only read.
+     * @throws IllegalArgumentException if scales of notation differ.
+     */
+    public IncrementalSum(Collection<NumberListImpl> operands) {
+        this.operands = operands.toArray(new NumberListImpl[0]);
+        this.base = this.operands.length == 0 ? 10 : this.operands[0].getBase();
+        for (NumberListImpl op : this.operands) {
+            if (op.getBase() != base) {
+                throw new IllegalArgumentException("Scales of notation differ: " + base + ", " + op.getBase());
+            }
+        }
+        this.seen = new byte[this.operands.length][];
+        this.versions = new long[this.operands.length];
+        rebuild();
+    }
+
+    /**
+     * Returns the sum of current values of the operands, updating it with
+     * the digits changed since the previous call.
+     *
+     * @return new list with the sum, without leading zeros.
+     */
+    public NumberListImpl value() {
+        refresh();
+        int lead = 0;
+        while (lead < sum.length - 1 && sum[lead] == 0) lead++;
+        return NumberListImpl.fromDigits(Arrays.copyOfRange(sum, lead, sum.length), base);
+    }
+
+    // Number of times the sum was computed anew, for tests
+    int rebuilds() {
+        return rebuilds;
+    }
+
+    private void refresh() {
+        int[][] ranges = new int[operands.length][];
+        long changed = 0;
+        for (int i = 0; i < operands.length; i++) {
+            ranges[i] = operands[i].changedRanges(versions[i]);
+            if (ranges[i] == null) {
+                rebuild();
+                return;
+            }
+            for (int r = 0; r < ranges[i].length; r += 2) changed += ranges[i][r + 1] - ranges[i][r];
+        }
+        if (changed > Math.max(NumberListImpl.EDIT_LOG, digits >> REBUILD_SHIFT)) {
+            rebuild();
+            return;
+        }
+        for (int i = 0; i < operands.length; i++) {
+            NumberListImpl op = operands[i];
+            byte[] old = seen[i];
+            for (int r = 0; r < ranges[i].length; r += 2) {
+                for (int index = ranges[i][r]; index < ranges[i][r + 1]; index++) {
+                    byte digit = op.get(index);
+                    if (digit != old[index]) {
+                        add(old.length - 1 - index, digit - old[index]);
+                        old[index] = digit;
+                    }
+                }
+            }
+            versions[i] = op.version();
+        }
+    }
+
+    // Adds delta * base^position; the sum stays non-negative, so a borrow
+    // stops before the most significant digit
+    private void add(int position, int delta) {
+        int i = sum.length - 1 - position;
+        while (delta != 0) {
+            int v = sum[i] + delta;
+            delta = Math.floorDiv(v, base);
+            sum[i--] = (byte) (v - delta * base);
+        }
+    }
+
+    private void rebuild() {
+        int width = 0;
+        digits = 0;
+        List<byte[]> terms = new ArrayList<>(operands.length);
+        for (int i = 0; i < operands.length; i++) {
+            versions[i] = operands[i].version();
+            seen[i] = operands[i].toDigitArray();
+            terms.add(seen[i]);
+            width = Math.max(width, seen[i].length);
+            digits += seen[i].length;
+        }
+        // Sum of n numbers below base^width is below n * base^width, so
+        // the digits of n leave room for any carry the changes bring
+        byte[] total = width == 0 ? new byte[0] : DigitArithmetic.sum(terms, base);
+        sum = new byte[Math.max(width + DigitArithmetic.digitCount(operands.length, base), total.length)];
+        System.arraycopy(total, 0, sum, sum.length - total.length, total.length);
+        rebuilds++;
+    }
+}
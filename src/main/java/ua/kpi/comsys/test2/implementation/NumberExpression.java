@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import ua.kpi.comsys.test2.NumberList;
+
+/**
+ * Lazy arithmetic expression over <tt>NumberList</tt> operands.<p>
+ *
+ * Building an expression only records the operations; nothing is computed
+ * until {@link #evaluate()} is called, and the result is then cached.
+ * Operands are read at that moment, so changes made to them before the
+ * first evaluation are visible in the result.<p>
+ *
+ * Chains of additions, however nested, are fused into a single
+ * multi-operand carry pass, so summing N numbers takes time proportional
+ * to their total length. Chains of multiplications are evaluated as a
+ * balanced tree of products. Operands in other scales of notation are
+ * converted to the base of the leftmost operand; lists of other types
+ * are treated as <b>decimal</b>.<p>
+ *
+ * The first evaluation reads the operand lists, which moves their cursors,
+ * so like the lists themselves it has to be done by a single thread, while
+ * no other thread uses the operands. Once evaluated, the expression only
+ * copies the cached result, and may be evaluated by any thread it is
+ * safely published to.
+ *
+ * <pre>
+ * NumberListImpl total = NumberExpression.of(a).plus(b).plus(c).times(d).inBase(16).evaluate();
+ * </pre>
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+public abstract class NumberExpression {
+
+    private volatile byte[] value;
+
+    NumberExpression() {
+    }
+
+    /**
+     * Returns expression which consists of a single operand.
+     *
+     * @param operand - number.
+     * @return operand expression.
+     */
+    public static NumberExpression of(NumberList operand) {
+        if (operand == null) throw new NullPointerException();
+        return new Operand(operand);
+    }
+
+    /**
+     * Returns sum of this expression and the operand.
+     *
+     * @param operand - number to add.
+     * @return sum expression.
+     */
+    public NumberExpression plus(NumberList operand) {
+        return plus(of(operand));
+    }
+
+    /**
+     * Returns sum of this expression and the other one.
+     *
+     * @param other - expression to add.
+     * @return sum expression.
+     */
+    public NumberExpression plus(NumberExpression other) {
+        return new Sum(this, other);
+    }
+
+    /**
+     * Returns product of this expression and the operand.
+     *
+     * @param operand - number to multiply by.
+     * @return product expression.
+     */
+    public NumberExpression times(NumberList operand) {
+        return times(of(operand));
+    }
+
+    /**
+     * Returns product of this expression and the other one.
+     *
+     * @param other - expression to multiply by.
+     * @return product expression.
+     */
+    public NumberExpression times(NumberExpression other) {
+        return new Product(this, other);
+    }
+
+    /**
+     * Returns the same value in the specified scale of notation.
+     *
+     * @param base - base of the scale of notation, from 2 to 16.
+     * @return scale change expression.
+     * @throws IllegalArgumentException if base is not supported.
+     */
+    public NumberExpression inBase(int base) {
+        Radix.checkBase(base);
+        return new Scale(this, base);
+    }
+
+    /**
+     * Returns base of the scale of notation of the result.
+     *
+     * @return base of the result.
+     */
+    public abstract int getBase();
+
+    /**
+     * Evaluates the expression, or returns copy of the cached result.
+     *
+     * @return new list with the value, without leading zeros.
+     */
+    public NumberListImpl evaluate() {
+        return NumberListImpl.fromDigits(digits(), getBase());
+    }
+
+    // Digits of the result in its base, computed once
+    final byte[] digits() {
+        byte[] v = value;
+        if (v == null) {
+            v = compute();
+            value = v;
+        }
+        return v;
+    }
+
+    // Digits of the result converted to the requested base
+    final byte[] digits(int base) {
+        byte[] v = digits();
+        return base == getBase() ? v : Radix.convert(v, getBase(), base);
+    }
+
+    abstract byte[] compute();
+
+    private static final class Operand extends NumberExpression {
+        private final NumberList list;
+
+        Operand(NumberList list) {
+            this.list = list;
+        }
+
+        @Override
+        public int getBase() {
+            return list instanceof NumberListImpl ? ((NumberListImpl) list).getBase() : 10;
+        }
+
+        @Override
+        byte[] compute() {
+            byte[] d = NumberListImpl.asImpl(list).significantDigits();
+            return d.length == 0 ? new byte[] {0} : d;
+        }
+    }
+
+    // Operation which is fused with nested operations of the same type
+    private abstract static class Chain extends NumberExpression {
+        final NumberExpression left;
+        final NumberExpression right;
+
+        Chain(NumberExpression left, NumberExpression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public int getBase() {
+            // Left-deep chains are walked without recursion
+            NumberExpression e = this;
+            while (e.getClass() == getClass()) e = ((Chain) e).left;
+            return e.getBase();
+        }
+
+        // Operands of the chain in the result base, left to right
+        final List<byte[]> operands(int base) {
+            List<byte[]> operands = new ArrayList<>();
+            Deque<NumberExpression> stack = new ArrayDeque<>();
+            stack.push(this);
+            while (!stack.isEmpty()) {
+                NumberExpression e = stack.pop();
+                // Already evaluated subexpressions are reused as they are
+                if (e.getClass() == getClass() && (e == this || e.value == null)) {
+                    stack.push(((Chain) e).right);
+                    stack.push(((Chain) e).left);
+                } else {
+                    operands.add(e.digits(base));
+                }
+            }
+            return operands;
+        }
+    }
+
+    private static final class Sum extends Chain {
+        Sum(NumberExpression left, NumberExpression right) {
+            super(left, right);
+        }
+
+        @Override
+        byte[] compute() {
+            int base = getBase();
+            return DigitArithmetic.sum(operands(base), base);
+        }
+    }
+
+    private static final class Product extends Chain {
+        Product(NumberExpression left, NumberExpression right) {
+            super(left, right);
+        }
+
+        @Override
+        byte[] compute() {
+            int base = getBase();
+            List<byte[]> factors = operands(base);
+            // Pairwise rounds keep operands of similar length
+            while (factors.size() > 1) {
+                List<byte[]> next = new ArrayList<>((factors.size() + 1) / 2);
+                for (int i = 0; i + 1 < factors.size(); i += 2) {
+                    next.add(DigitArithmetic.multiply(factors.get(i), factors.get(i + 1), base));
+                }
+                if ((factors.size() & 1) != 0) next.add(factors.get(factors.size() - 1));
+                factors = next;
+            }
+            return factors.get(0);
+        }
+    }
+
+    private static final class Scale extends NumberExpression {
+        private final NumberExpression operand;
+        private final int base;
+
+        Scale(NumberExpression operand, int base) {
+            this.operand = operand;
+            this.base = base;
+        }
+
+        @Override
+        public int getBase() {
+            return base;
+        }
+
+        @Override
+        byte[] compute() {
+            return operand.digits(base);
+        }
+    }
+}
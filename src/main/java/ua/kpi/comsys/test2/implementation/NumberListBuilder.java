@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Push-based parser, which builds <tt>NumberListImpl</tt> from textual
+ * number received in chunks.<p>
+ *
+ * Each chunk is validated and its digits are appended to the list storage
+ * immediately, so the whole text is never buffered. The number may be
+ * surrounded by whitespace, as in {@link NumberListImpl#NumberListImpl(String)},
+ * but any other character, including whitespace between digits, fails
+ * with {@link DigitFormatException} reporting its offset from the start
+ * of input. After a failure the builder cannot be used anymore.<p>
+ *
+ * Byte input is treated as ASCII text.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+public final class NumberListBuilder {
+
+    private static final int LEADING = 0;
+    private static final int DIGITS = 1;
+    private static final int TRAILING = 2;
+    private static final int FAILED = 3;
+    private static final int BUILT = 4;
+
+    private final NumberListImpl list;
+    private final int base;
+    private int state = LEADING;
+    private long position;
+
+    /**
+     * Creates builder of <b>decimal</b> number.
+     */
+    public NumberListBuilder() {
+        this(10, 0);
+    }
+
+    /**
+     * Creates builder of <b>decimal</b> number with expected length.
+     *
+     * @param lengthHint - expected number of digits, used to pre-size storage.
+     */
+    public NumberListBuilder(long lengthHint) {
+        this(10, lengthHint);
+    }
+
+    /**
+     * Creates builder of number in the specified scale of notation.
+     * Digits above 9 are letters in either case.
+     *
+     * @param base - scale of notation, from 2 to 16.
+     * @param lengthHint - expected number of digits, used to pre-size storage.
+     */
+    public NumberListBuilder(int base, long lengthHint) {
+        this(new NumberListImpl(base), base, lengthHint);
+    }
+
+    // Package-private: appends digits to the existing list
+    NumberListBuilder(NumberListImpl list, int base, long lengthHint) {
+        Radix.checkBase(base);
+        this.list = list;
+        this.base = base;
+        list.reserve((int) Math.min(Math.max(lengthHint, 0), NumberListImpl.MAX_CHUNK));
+    }
+
+    /**
+     * Appends chunk of characters.
+     *
+     * @param chunk - next part of the number text.
+     * @return this builder.
+     * @throws DigitFormatException if chunk contains invalid character.
+     */
+    public NumberListBuilder append(CharSequence chunk) {
+        return append(chunk, 0, chunk.length());
+    }
+
+    /**
+     * Appends part of character chunk.
+     *
+     * @param chunk - next part of the number text.
+     * @param start - index of the first character.
+     * @param end - index after the last character.
+     * @return this builder.
+     * @throws DigitFormatException if chunk contains invalid character.
+     */
+    public NumberListBuilder append(CharSequence chunk, int start, int end) {
+        checkOpen();
+        for (int i = start; i < end; i++) {
+            accept(chunk.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Appends chunk of ASCII bytes.
+     *
+     * @param chunk - next part of the number text.
+     * @return this builder.
+     * @throws DigitFormatException if chunk contains invalid character.
+     */
+    public NumberListBuilder append(byte[] chunk) {
+        return append(chunk, 0, chunk.length);
+    }
+
+    /**
+     * Appends part of ASCII byte chunk.
+     *
+     * @param chunk - next part of the number text.
+     * @param off - index of the first byte.
+     * @param len - number of bytes.
+     * @return this builder.
+     * @throws DigitFormatException if chunk contains invalid character.
+     */
+    public NumberListBuilder append(byte[] chunk, int off, int len) {
+        checkOpen();
+        for (int i = off; i < off + len; i++) {
+            accept(chunk[i] & 0xFF);
+        }
+        return this;
+    }
+
+    /**
+     * Appends all remaining bytes of the buffer, which are treated as ASCII.
+     * Buffer position is advanced to its limit, or to the invalid byte.
+     *
+     * @param chunk - next part of the number text.
+     * @return this builder.
+     * @throws DigitFormatException if chunk contains invalid character.
+     */
+    public NumberListBuilder append(ByteBuffer chunk) {
+        checkOpen();
+        while (chunk.hasRemaining()) {
+            accept(chunk.get(chunk.position()) & 0xFF);
+            chunk.position(chunk.position() + 1);
+        }
+        return this;
+    }
+
+    private void accept(int c) {
+        int d = digit(c);
+        if (d >= 0 && d < base) {
+            if (state == TRAILING) fail(c);
+            state = DIGITS;
+            list.appendDigit((byte) d);
+        } else if (c <= ' ') {
+            if (state == DIGITS) state = TRAILING;
+        } else {
+            fail(c);
+        }
+        position++;
+    }
+
+    private static int digit(int c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'a' && c <= 'z') return c - 'a' + 10;
+        if (c >= 'A' && c <= 'Z') return c - 'A' + 10;
+        return -1;
+    }
+
+    private void fail(int c) {
+        state = FAILED;
+        throw new DigitFormatException(position, c);
+    }
+
+    private void checkOpen() {
+        if (state == FAILED) throw new IllegalStateException("Invalid input at offset " + position);
+        if (state == BUILT) throw new IllegalStateException("List is already built");
+    }
+
+    /**
+     * Returns number of characters consumed so far.
+     *
+     * @return offset of the next character.
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Returns number of digits parsed so far.
+     *
+     * @return number of digits.
+     */
+    public int length() {
+        return list.size();
+    }
+
+    /**
+     * Finishes parsing and returns the list. Empty or blank input gives
+     * empty list.
+     *
+     * @return parsed list.
+     */
+    public NumberListImpl build() {
+        checkOpen();
+        state = BUILT;
+        return list;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event of a timed <tt>NumberListImpl</tt> operation.
+ * Emitted only when {@link NumberListMetrics} are enabled.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+@Name("ua.kpi.comsys.test2.NumberListOperation")
+@Label("Number List Operation")
+@Category("Number List")
+@Description("Timed operation on NumberListImpl")
+@StackTrace(false)
+final class NumberListEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Digits")
+    long digits;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+}
@@ -7,19 +7,31 @@
 
 package ua.kpi.comsys.test2.implementation;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.math.BigInteger;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 
 import ua.kpi.comsys.test2.NumberList;
 
@@ -32,30 +44,119 @@ import ua.kpi.comsys.test2.NumberList;
  */
 public class NumberListImpl implements NumberList {
 
-    // Doubly Linked List Node
+    // Doubly Linked List Node, holding a chunk of digits.
+    // Live digits are digits[start..end), chunks grow up to MAX_CHUNK,
+    // except for a packed chunk which holds the whole list.
+    // Shared digits are also seen by a snapshot and are copied before
+    // the live range is changed; digits past the end may be appended.
     private static class Node {
-        Byte value;
+        byte[] digits;
+        int start;
+        int end;
         Node next;
         Node prev;
+        boolean shared;
 
-        Node(Byte value) {
-            this.value = value;
+        Node(int capacity) {
+            this.digits = new byte[capacity];
+        }
+
+        Node(Node other) {
+            this.digits = other.digits;
+            this.start = other.start;
+            this.end = other.end;
+            this.shared = true;
+        }
+
+        int count() {
+            return end - start;
         }
     }
 
+    private static final int MIN_CHUNK = 16;
+    static final int MAX_CHUNK = 4096;
+
+    // The list is packed once locate() has walked size >> PACK_SHIFT
+    // chunks since the layout last changed
+    static final int PACK_SHIFT = 8;
+
+    private static final int WRITE_BUFFER = 8192;
+
+    // Shallow sizes on a 64-bit JVM with compressed references
+    static final int LIST_BYTES = 72;
+    static final int NODE_BYTES = 40;
+    static final int ARRAY_HEADER_BYTES = 16;
+
+    // Decimal digits which always fit into a long, and log10(2)
+    private static final int LONG_DIGITS = 18;
+    private static final double LOG10_2 = Math.log10(2);
+
     private Node head;
     private Node tail;
     private int size;
+
+    // Without chunks, the digits are those of small padded with leading
+    // zeros to size. Lists stay so while the value fits into a long and
+    // every digit is below the base, and move to chunks when they grow.
+    private long small;
+
+    // Estimated bytes of the chunks, kept up to date as they are linked,
+    // grown and unlinked, so it can be read without walking them
+    private long storageBytes;
+
+    // Last node found by index and the index of its first digit.
+    // Reset on every change which moves digits between positions.
+    private Node cursor;
+    private int cursorIndex;
+
+    // Chunks walked by locate() since the list was last packed or split.
+    // Random access makes it grow, sequential access and appends do not.
+    private long hops;
     
     // Store the base of the number system (default 10)
     private int storedBase;
 
+    // Cached List.hashCode() and 64-bit FNV-1a digest of the digits.
+    // Appending updates them, other changes drop them.
+    private static final long DIGEST_SEED = 0xCBF29CE484222325L;
+    private static final long DIGEST_PRIME = 0x100000001B3L;
+    private boolean hashValid;
+    private int hash;
+    private long digest;
+
+    // Number of leading zero digits, -1 if unknown.
+    // Appending keeps it, other changes drop it.
+    private int zeros;
+
+    // In canonical mode leading zeros are stripped after every change
+    private boolean canonical;
+
+    // Number of changes so far, and the last one which moved digits to
+    // other positions. Ranges of the last EDIT_LOG in place changes are
+    // kept in a ring as from, to pairs, slot version % EDIT_LOG.
+    static final int EDIT_LOG = 64;
+    private long version;
+    private long shapeVersion;
+    private int[] edits;
+
+    // Snapshots are frozen. Until the first change after snapshot()
+    // the list shares its nodes with the snapshot.
+    private boolean frozen;
+    private boolean chainShared;
+
     /**
      * Default constructor. Returns empty <tt>NumberListImpl</tt>
      */
     public NumberListImpl() {
         this.size = 0;
         this.storedBase = 10; // Default is Decimal
+        NumberListRegistry.track(this);
+    }
+
+    // Package-private: empty list of digits in the specified base
+    NumberListImpl(int base) {
+        this();
+        this.storedBase = base;
     }
 
 
@@ -67,6 +168,7 @@ public class NumberListImpl implements NumberList {
      */
     public NumberListImpl(File file) {
         this();
+        long started = NumberListMetrics.start();
         // If file read fails, list remains empty (as required by tests)
         try (BufferedReader br = new BufferedReader(new FileReader(file))) {
             String line = br.readLine();
@@ -74,6 +176,7 @@ public class NumberListImpl implements NumberList {
         } catch (IOException e) {
             // Ignored specifically for the test requirements
         }
+        NumberListMetrics.record(NumberListMetrics.Operation.LOAD, started, size);
     }
 
 
@@ -88,24 +191,111 @@ public class NumberListImpl implements NumberList {
         initFromDecimalString(value);
     }
 
-    // Helper: Strictly parses Decimal String
-    private void initFromDecimalString(String value) {
-        if (value == null) return;
-        String cleanNum = value.trim();
-        
-        if (cleanNum.isEmpty()) return;
+    /**
+     * Constructs new <tt>NumberListImpl</tt> by <b>decimal</b> digits,
+     * most significant first.
+     *
+     * @param digits - decimal digits, from 0 to 9.
+     * @throws NumberFormatException if some digit is out of range.
+     */
+    public NumberListImpl(byte[] digits) {
+        this();
+        Radix.checkDigits(digits, 10);
+        appendDigits(digits, 0, digits.length);
+    }
+
+
+    /**
+     * Constructs new <tt>NumberListImpl</tt> by <b>decimal</b> digits,
+     * most significant first.
+     *
+     * @param digits - decimal digits, from 0 to 9.
+     * @throws NumberFormatException if some digit is out of range.
+     */
+    public NumberListImpl(int[] digits) {
+        this();
+        byte[] bytes = new byte[digits.length];
+        for (int i = 0; i < digits.length; i++) {
+            if (digits[i] < 0 || digits[i] > 9) {
+                throw new NumberFormatException("Digit " + digits[i] + " at position " + i
+                        + " is out of range for base 10");
+            }
+            bytes[i] = (byte) digits[i];
+        }
+        appendDigits(bytes, 0, bytes.length);
+    }
+
+
+    /**
+     * Constructs new <tt>NumberListImpl</tt> by non-negative number in
+     * <b>decimal</b> scale of notation, without leading zeros.<p>
+     *
+     * The number is split by halving powers of ten down to 18 digit
+     * blocks, so no string is built.
+     *
+     * @param value - non-negative number.
+     * @throws IllegalArgumentException if the number is negative.
+     */
+    public NumberListImpl(BigInteger value) {
+        this();
+        if (value.signum() < 0) throw new IllegalArgumentException("Negative number: " + value);
+        int length = (int) (value.bitLength() * LOG10_2) + 2;
+        byte[] digits = new byte[length];
+        List<BigInteger> powers = new ArrayList<>();
+        powers.add(BigInteger.TEN.pow(LONG_DIGITS));
+        splitDecimal(value, digits, length, length, powers);
+        int lead = 0;
+        while (lead < length - 1 && digits[lead] == 0) lead++;
+        appendDigits(digits, lead, length - lead);
+    }
+
 
-        // Validation: contains only digits
-        for (char c : cleanNum.toCharArray()) {
-            if (!Character.isDigit(c)) {
-                return; // Invalid input -> empty list
+    /**
+     * Constructs copy of the list. Digits of <tt>NumberListImpl</tt> are
+     * copied chunk by chunk and keep their scale of notation; other lists
+     * are treated as <b>decimal</b>.
+     *
+     * @param other - list to copy.
+     */
+    public NumberListImpl(NumberList other) {
+        this();
+        if (other instanceof NumberListImpl) {
+            storedBase = ((NumberListImpl) other).storedBase;
+        }
+        addAll(other);
+    }
+
+    // Helper: writes exactly count decimal digits of value ending before
+    // end, halving by powers[i] = 10^(18 * 2^i)
+    private static void splitDecimal(BigInteger value, byte[] digits, int end, int count,
+                                     List<BigInteger> powers) {
+        if (count <= LONG_DIGITS) {
+            long v = value.longValue();
+            for (int i = end - 1; i >= end - count; i--) {
+                digits[i] = (byte) (v % 10);
+                v /= 10;
             }
+            return;
+        }
+        int level = 0;
+        while (LONG_DIGITS << (level + 1) < count) {
+            level++;
+            if (powers.size() == level) powers.add(powers.get(level - 1).pow(2));
         }
+        BigInteger[] qr = value.divideAndRemainder(powers.get(level));
+        int low = LONG_DIGITS << level;
+        splitDecimal(qr[1], digits, end, low, powers);
+        splitDecimal(qr[0], digits, end - low, count - low, powers);
+    }
 
-        for (char c : cleanNum.toCharArray()) {
-            add((byte) (c - '0'));
+    // Helper: Strictly parses Decimal String
+    private void initFromDecimalString(String value) {
+        if (value == null) return;
+        try {
+            new NumberListBuilder(this, 10, value.length()).append(value);
+        } catch (DigitFormatException e) {
+            clear(); // Invalid input -> empty list
         }
-        this.storedBase = 10;
     }
 
 
@@ -116,11 +306,171 @@ public class NumberListImpl implements NumberList {
      * @param file - file where number has to be stored.
      */
     public void saveList(File file) {
-        try (FileWriter writer = new FileWriter(file)) {
-            writer.write(toDecimalString());
+        long started = NumberListMetrics.start();
+        try (OutputStream out = new FileOutputStream(file)) {
+            if (storedBase == 10) {
+                writeDigits(out);
+            } else {
+                out.write(decimalChars());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing to file", e);
+        }
+        NumberListMetrics.record(NumberListMetrics.Operation.SAVE, started, size);
+    }
+
+
+    /**
+     * Saves the number, stored in the list, into specified file in
+     * {@link PackedNumberFormat packed format}, keeping the current scale
+     * of notation. Blocks are run-length encoded when that makes them smaller.
+     *
+     * @param file - file where number has to be stored.
+     * @throws NumberFormatException if some digit is out of range for the
+     *      base; the file is not created then.
+     */
+    public void savePacked(File file) {
+        savePacked(file, PackedNumberFormat.Codec.RLE);
+    }
+
+
+    /**
+     * Saves the number, stored in the list, into specified file in
+     * {@link PackedNumberFormat packed format} with the specified codec.
+     *
+     * @param file - file where number has to be stored.
+     * @param codec - block compression method.
+     * @throws NumberFormatException if some digit is out of range for the
+     *      base; the file is not created then.
+     */
+    public void savePacked(File file, PackedNumberFormat.Codec codec) {
+        long started = NumberListMetrics.start();
+        checkStoredDigits();
+        try (PackedNumberFormat.Encoder encoder = new PackedNumberFormat.Encoder(
+                new BufferedOutputStream(new FileOutputStream(file)), storedBase, codec)) {
+            for (Node x = first(); x != null; x = x.next)
+                encoder.write(x.digits, x.start, x.count());
         } catch (IOException e) {
-            throw new RuntimeException("Error writing to file", e);
+            throw new UncheckedIOException("Error writing to file", e);
         }
+        NumberListMetrics.record(NumberListMetrics.Operation.SAVE, started, size);
+    }
+
+
+    /**
+     * Constructs new <tt>NumberListImpl</tt> from file in
+     * {@link PackedNumberFormat packed format}. The list has the scale of
+     * notation the number was saved in.
+     *
+     * @param file - file where number is stored.
+     * @return loaded list.
+     * @throws UncheckedIOException if file cannot be read or is corrupted.
+     */
+    public static NumberListImpl loadPacked(File file) {
+        long started = NumberListMetrics.start();
+        try (PackedNumberFormat.Decoder decoder = new PackedNumberFormat.Decoder(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            NumberListImpl result = new NumberListImpl(decoder.getBase());
+            byte[] buffer = new byte[MAX_CHUNK];
+            int n;
+            while ((n = decoder.read(buffer, 0, buffer.length)) > 0) {
+                result.appendDigits(buffer, 0, n);
+            }
+            NumberListMetrics.record(NumberListMetrics.Operation.LOAD, started, result.size);
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading file", e);
+        }
+    }
+
+
+    /**
+     * Constructs new <tt>NumberListImpl</tt> from range of digits of the file
+     * in {@link PackedNumberFormat packed format}. Only blocks which contain
+     * the range are read.
+     *
+     * @param file - file where number is stored.
+     * @param fromIndex - index of the first digit, inclusive.
+     * @param toIndex - index of the last digit, exclusive.
+     * @return list of digits in the range, in the scale of notation of the file.
+     * @throws UncheckedIOException if file cannot be read or is corrupted.
+     */
+    public static NumberListImpl loadPacked(File file, long fromIndex, long toIndex) {
+        try (PackedNumberFormat.BlockReader reader = new PackedNumberFormat.BlockReader(file.toPath())) {
+            if (fromIndex < 0 || toIndex > reader.size() || fromIndex > toIndex)
+                throw new IndexOutOfBoundsException("Range " + fromIndex + ".." + toIndex);
+            byte[] digits = new byte[Math.toIntExact(toIndex - fromIndex)];
+            reader.read(fromIndex, digits, 0, digits.length);
+            return fromDigits(digits, reader.getBase());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading file", e);
+        }
+    }
+
+
+    /**
+     * Asynchronously loads <tt>NumberListImpl</tt> from file, which stores
+     * <b>decimal</b> number in string format.<p>
+     *
+     * Unlike {@link #NumberListImpl(File)}, errors are not ignored: the future
+     * completes exceptionally with <tt>IOException</tt> if the file cannot be
+     * read, or with {@link DigitFormatException} if it contains anything
+     * but digits and surrounding whitespace. Cancelling the future aborts
+     * reading.
+     *
+     * @param path - file where number is stored.
+     * @return future of the loaded list.
+     */
+    public static CompletableFuture<NumberListImpl> loadAsync(Path path) {
+        return loadAsync(path, ProgressListener.NONE);
+    }
+
+
+    /**
+     * Asynchronously loads <tt>NumberListImpl</tt> from file, reporting
+     * the number of bytes read after each chunk.
+     *
+     * @param path - file where number is stored.
+     * @param listener - progress listener.
+     * @return future of the loaded list.
+     * @see #loadAsync(Path)
+     */
+    public static CompletableFuture<NumberListImpl> loadAsync(Path path, ProgressListener listener) {
+        return AsyncNumberFile.load(path, listener);
+    }
+
+
+    /**
+     * Asynchronously saves the number, stored in the list, into specified
+     * file in <b>decimal</b> scale of notation.<p>
+     *
+     * The number is captured when the method is called, later changes of
+     * the list are not saved. Conversion to decimal, if needed, does not
+     * run on the calling thread. The future completes exceptionally with
+     * <tt>IOException</tt> if the file cannot be written. Cancelling the
+     * future aborts writing and leaves the file incomplete.
+     *
+     * @param path - file where number has to be stored.
+     * @return future completed when the file is written.
+     */
+    public CompletableFuture<Void> saveAsync(Path path) {
+        return saveAsync(path, ProgressListener.NONE);
+    }
+
+
+    /**
+     * Asynchronously saves the number, reporting the number of bytes
+     * written after each chunk.
+     *
+     * @param path - file where number has to be stored.
+     * @param listener - progress listener.
+     * @return future completed when the file is written.
+     * @see #saveAsync(Path)
+     */
+    public CompletableFuture<Void> saveAsync(Path path, ProgressListener listener) {
+        // The snapshot keeps the number, conversion runs on the common pool
+        NumberListImpl view = snapshot();
+        return AsyncNumberFile.save(view::toDecimalDigits, path, listener);
     }
 
 
@@ -143,33 +493,297 @@ public class NumberListImpl implements NumberList {
      * @return <tt>NumberListImpl</tt> in other scale of notation.
      */
     public NumberListImpl changeScale() {
-        // Variant 3101: Convert Decimal -> Ternary (Base 3)
+        // Variant 3101: Convert to Ternary (Base 3)
         // Corrected based on expected values in tests (digits 0,1,2 only)
-        
-        // Get current value as decimal string
-        String decimalStr = this.toDecimalString();
-        
-        if (decimalStr.isEmpty() || decimalStr.equals("0")) {
-            NumberListImpl zero = new NumberListImpl();
-            zero.add((byte)0);
-            zero.storedBase = 3;
-            return zero;
+        return changeScale(3);
+    }
+
+
+    /**
+     * Returns new <tt>NumberListImpl</tt> which represents the same number
+     * in the specified scale of notation.<p>
+     *
+     * Digits are read straight from the chunks. Conversions between bases
+     * 2, 4, 8 and 16 regroup bits in linear time, other conversions join
+     * converted halves with Karatsuba products by cached powers of the base.
+     * The result has no leading zeros, empty list is converted to zero.<p>
+     *
+     * Does not impact the original list.
+     *
+     * @param targetBase - base of the target scale of notation, from 2 to 16.
+     * @return <tt>NumberListImpl</tt> in the specified scale of notation.
+     * @throws IllegalArgumentException if base is not supported.
+     */
+    public NumberListImpl changeScale(int targetBase) {
+        Radix.checkBase(targetBase);
+        long started = NumberListMetrics.start();
+        NumberListImpl result = head == null
+                ? fromLong(small, targetBase)
+                : fromDigits(convertDigits(targetBase), targetBase);
+        result.canonical = canonical;
+        NumberListMetrics.record(NumberListMetrics.Operation.CHANGE_SCALE, started, size);
+        return result;
+    }
+
+
+    /**
+     * Returns base of the scale of notation the digits are stored in.
+     *
+     * @return base of the scale of notation.
+     */
+    public int getBase() {
+        return storedBase;
+    }
+
+    // Helper: copies digits into array, most significant first
+    byte[] toDigitArray() {
+        if (head == null) return inlineNode().digits;
+        byte[] digits = new byte[size];
+        int i = 0;
+        for (Node x = head; x != null; x = x.next) {
+            System.arraycopy(x.digits, x.start, digits, i, x.count());
+            i += x.count();
         }
+        return digits;
+    }
 
-        BigInteger decimalVal = new BigInteger(decimalStr);
-        String ternaryStr = decimalVal.toString(3); // Convert to Base 3
+    // Helper: throws if some digit is out of range for the base
+    private void checkStoredDigits() {
+        int index = 0;
+        for (Node x = first(); x != null; x = x.next) {
+            for (int i = x.start; i < x.end; i++, index++) {
+                if (x.digits[i] < 0 || x.digits[i] >= storedBase) {
+                    throw new NumberFormatException("Digit " + x.digits[i] + " at position " + index
+                            + " is out of range for base " + storedBase);
+                }
+            }
+        }
+    }
 
-        NumberListImpl result = new NumberListImpl();
-        for (char c : ternaryStr.toCharArray()) {
-            result.add((byte) (c - '0'));
+    // Helper: copies digits without leading zeros
+    byte[] significantDigits() {
+        int lz = leadingZeros();
+        return copyDigits(lz, size - lz);
+    }
+
+    // Helper: converts the digits without leading zeros into the target
+    // base, reading them from the chunks
+    private byte[] convertDigits(int targetBase) {
+        int skip = leadingZeros();
+        Radix.Converter converter = new Radix.Converter(storedBase, targetBase, skip, size - skip);
+        for (Node x = first(); x != null; x = x.next) {
+            int n = x.count();
+            if (skip >= n) {
+                skip -= n;
+            } else {
+                converter.feed(x.digits, x.start + skip, n - skip);
+                skip = 0;
+            }
         }
-        
-        // Set base to 3 for the new list
-        result.storedBase = 3;
-        
+        return converter.finish();
+    }
+
+    // Helper: digits of toDecimalString(), without rendering them
+    private byte[] toDecimalDigits() {
+        if (storedBase == 10 || size == 0) return toDigitArray();
+        return convertDigits(10);
+    }
+
+    // Helper: decimal digits of the number without leading zeros
+    private byte[] significantDecimalDigits() {
+        return storedBase == 10 ? significantDigits() : convertDigits(10);
+    }
+
+    // Helper: builds list from digit array in the specified base
+    static NumberListImpl fromDigits(byte[] digits, int base) {
+        NumberListImpl result = new NumberListImpl(base);
+        result.appendDigits(digits, 0, digits.length);
         return result;
     }
 
+    // Helper: builds list from non-negative value, without leading zeros
+    static NumberListImpl fromLong(long value, int base) {
+        NumberListImpl result = new NumberListImpl(base);
+        int n = Math.max(1, digitCount(value, Radix.table(base)));
+        if (n <= Radix.table(base).longDigits) {
+            result.small = value;
+            result.size = n;
+            result.zeros = value == 0 ? 1 : 0;
+        } else {
+            byte[] digits = new byte[n];
+            for (int i = n - 1; i >= 0; i--) {
+                digits[i] = (byte) (value % base);
+                value /= base;
+            }
+            result.appendDigits(digits, 0, n);
+        }
+        return result;
+    }
+
+    // Helper: number of digits of non-negative value, 0 for zero
+    private static int digitCount(long value, Radix.Table t) {
+        int n = 0;
+        while (n < t.longDigits && value >= t.longPowers[n + 1]) n++;
+        return value == 0 ? 0 : n + 1;
+    }
+
+    // Helper: whether the digits are kept in small, without chunks
+    boolean isInline() {
+        return head == null;
+    }
+
+    /**
+     * Returns estimated number of bytes of heap memory held by the list:
+     * the list object itself and its chunks of digits, including their
+     * unused capacity. Small numbers kept inline take only the list object.
+     * Chunks shared with a snapshot are counted by both lists.<p>
+     *
+     * Takes constant time and may be called by any thread.
+     *
+     * @return estimated footprint in bytes.
+     */
+    public long estimatedFootprintBytes() {
+        return LIST_BYTES + storageBytes;
+    }
+
+    // Helper: name of the storage backend, for the registry
+    String backend() {
+        return head == null ? "inline" : head == tail ? "packed" : "chunked";
+    }
+
+    // Helper: moves the digits into a single chunk, so that any digit is
+    // found without walking, when random access has walked more chunks
+    // than the copy costs. Chunks appended later are linked after it.
+    private void adapt() {
+        if (hops <= (size >> PACK_SHIFT) || frozen || head == tail) return;
+        Node x = new Node(size);
+        int i = 0;
+        for (Node y = head; y != null; y = y.next) {
+            System.arraycopy(y.digits, y.start, x.digits, i, y.count());
+            i += y.count();
+        }
+        x.end = size;
+        NumberListMetrics.recordAllocation(size);
+        head = x;
+        tail = x;
+        cursor = x;
+        cursorIndex = 0;
+        storageBytes = chunkBytes(size);
+        chainShared = false;
+        hops = 0;
+    }
+
+    // Helper: cuts a chunk larger than MAX_CHUNK into chunks of MAX_CHUNK
+    // digits, before a change which would shift or copy most of it
+    private void split(Node x) {
+        Node prev = x.prev;
+        Node next = x.next;
+        storageBytes -= chunkBytes(x.digits.length);
+        for (int p = x.start; p < x.end; p += MAX_CHUNK) {
+            int n = Math.min(MAX_CHUNK, x.end - p);
+            Node y = new Node(n);
+            System.arraycopy(x.digits, p, y.digits, 0, n);
+            y.end = n;
+            NumberListMetrics.recordAllocation(n);
+            storageBytes += chunkBytes(n);
+            if (prev == null) {
+                head = y;
+            } else {
+                prev.next = y;
+                y.prev = prev;
+            }
+            prev = y;
+        }
+        prev.next = next;
+        if (next == null) {
+            tail = prev;
+        } else {
+            next.prev = prev;
+        }
+        x.prev = null;
+        x.next = null;
+        cursor = null;
+        hops = 0;
+    }
+
+    // Helper: locates digit in a chunk which may be changed in place.
+    // Shared large chunks are split instead of being copied whole.
+    private int locateOwned(int index) {
+        int p = locate(index);
+        if (cursor.shared && cursor.count() > MAX_CHUNK) {
+            split(cursor);
+            p = locate(index);
+        }
+        own(cursor);
+        return p;
+    }
+
+    // Helper: estimated bytes of a chunk with the digit capacity
+    static long chunkBytes(int capacity) {
+        return NODE_BYTES + ((ARRAY_HEADER_BYTES + capacity + 7) & ~7L);
+    }
+
+    // Helper: storage bytes counted by walking the chunks, for tests
+    long countStorageBytes() {
+        long n = 0;
+        for (Node x = head; x != null; x = x.next) n += chunkBytes(x.digits.length);
+        return n;
+    }
+
+    // Helper: digit of the inline value
+    private byte inlineDigit(int index) {
+        return (byte) (small / Radix.table(storedBase).longPowers[size - 1 - index] % storedBase);
+    }
+
+    // Helper: inline digits unpacked into a chunk, which is not linked
+    // into the list, for code which walks chunks
+    private Node inlineNode() {
+        Node x = new Node(size);
+        long v = small;
+        for (int i = size - 1; i >= 0; i--) {
+            x.digits[i] = (byte) (v % storedBase);
+            v /= storedBase;
+        }
+        x.end = size;
+        return x;
+    }
+
+    // Helper: first chunk, null for empty list
+    private Node first() {
+        return head != null || size == 0 ? head : inlineNode();
+    }
+
+    // Helper: last chunk, null for empty list
+    private Node last() {
+        return head != null || size == 0 ? tail : inlineNode();
+    }
+
+    // Helper: moves inline digits into a chunk before changes which
+    // the inline value cannot represent
+    private void inflate() {
+        if (head != null || size == 0) return;
+        Node x = inlineNode();
+        NumberListMetrics.recordAllocation(x.digits.length);
+        storageBytes += chunkBytes(x.digits.length);
+        head = x;
+        tail = x;
+        small = 0;
+        cursor = null;
+    }
+
+    // Helper: appends digits to the inline value if the result fits
+    private boolean appendInline(byte[] src, int off, int len) {
+        if (head != null || size + len > Radix.table(storedBase).longDigits) return false;
+        long v = small;
+        for (int i = off; i < off + len; i++) {
+            if (src[i] < 0 || src[i] >= storedBase) return false;
+            v = v * storedBase + src[i];
+        }
+        small = v;
+        size += len;
+        return true;
+    }
+
 
     /**
      * Returns new <tt>NumberListImpl</tt> which represents the result of
@@ -182,27 +796,368 @@ public class NumberListImpl implements NumberList {
      * @return result of additional operation.
      */
     public NumberListImpl additionalOperation(NumberList arg) {
-        // Operation: Addition
-        String s1 = this.toDecimalString();
-        String s2;
-        
-        // Check if arg is an instance of our class to use toDecimalString
-        if (arg instanceof NumberListImpl) {
-            s2 = ((NumberListImpl) arg).toDecimalString();
+        long started = NumberListMetrics.start();
+        NumberListImpl other = asImpl(arg);
+        NumberListImpl result;
+        if (head == null && other.head == null && small + other.small >= 0) {
+            // Both values fit into a long and so does their sum
+            result = fromLong(small + other.small, 10);
         } else {
-            // Fallback for other implementations
-            s2 = arg.toString();
+            // Operation: Addition, in a single carry pass over decimal digits
+            byte[] sum = DigitArithmetic.sum(Arrays.asList(significantDecimalDigits(),
+                    other.significantDecimalDigits()), 10);
+            result = fromDigits(sum, 10);
+        }
+        result.canonical = canonical;
+        NumberListMetrics.record(NumberListMetrics.Operation.ADDITIONAL_OPERATION, started,
+                Math.max(size, arg.size()));
+        return result;
+    }
+
+
+    /**
+     * Compares numbers represented by the lists, which may be stored in
+     * different scales of notation. Leading zeros are ignored, empty list
+     * is equal to zero. Lists of other types are treated as <b>decimal</b>.<p>
+     *
+     * Numbers in the same base are compared by significant length and
+     * digits. For different bases, magnitudes are first bounded by the
+     * significant length and leading digits, and only numbers too close to
+     * be separated this way are converted to a common base.
+     *
+     * @param other - number to compare with.
+     * @return negative value, zero or positive value if this number is
+     *         less than, equal to or greater than the other.
+     */
+    public int compareNumeric(NumberList other) {
+        NumberListImpl that = asImpl(other);
+        if (head == null && that.head == null) return Long.compare(small, that.small);
+        int lzA = leadingZeros();
+        int lzB = that.leadingZeros();
+        int lenA = size - lzA;
+        int lenB = that.size - lzB;
+        if (lenA == 0 || lenB == 0) return Integer.compare(lenA, lenB);
+
+        if (storedBase == that.storedBase) {
+            if (lenA != lenB) return Integer.compare(lenA, lenB);
+            return compareDigits(this, lzA, that, lzB, lenA);
+        }
+
+        // log2 of the number lies in [lo, hi)
+        double[] a = magnitudeBounds(lzA);
+        double[] b = that.magnitudeBounds(lzB);
+        double eps = 1e-12 * (a[1] + b[1]) + 1e-9;
+        if (a[1] + eps <= b[0]) return -1;
+        if (b[1] + eps <= a[0]) return 1;
+
+        byte[] converted = Radix.convert(that.copyDigits(lzB, lenB), that.storedBase, storedBase);
+        if (lenA != converted.length) return Integer.compare(lenA, converted.length);
+        return compareDigits(this, lzA, fromDigits(converted, storedBase), 0, lenA);
+    }
+
+    // Helper: views other NumberList implementations as decimal NumberListImpl
+    static NumberListImpl asImpl(NumberList list) {
+        if (list instanceof NumberListImpl) return (NumberListImpl) list;
+        NumberListImpl result = new NumberListImpl();
+        for (Byte d : list) result.appendDigit(d);
+        return result;
+    }
+
+    /**
+     * Returns read-only view of the current digits, which is not affected
+     * by later changes of this list. Takes constant time: the view shares
+     * storage with this list, and each chunk of digits is copied only
+     * when this list changes it for the first time. Changing the view
+     * throws <tt>UnsupportedOperationException</tt>.<p>
+     *
+     * Has to be called by the thread which changes the list. The view may
+     * be passed to another thread through any safe publication, such as
+     * a concurrent queue, and read there without locking while the list
+     * keeps changing. Like the list itself, a view must not be read by
+     * several threads at once, but a separate view per reader is cheap.
+     *
+     * @return frozen view of the list.
+     */
+    public NumberListImpl snapshot() {
+        if (frozen) return this;
+        NumberListImpl view = new NumberListImpl(storedBase);
+        view.head = head;
+        view.tail = tail;
+        view.size = size;
+        view.small = small;
+        view.storageBytes = storageBytes;
+        view.hashValid = hashValid;
+        view.hash = hash;
+        view.digest = digest;
+        view.zeros = zeros;
+        view.canonical = canonical;
+        view.version = version;
+        view.shapeVersion = version;
+        view.frozen = true;
+        chainShared = head != null;
+        return view;
+    }
+
+    /**
+     * Returns whether the list is a read-only snapshot.
+     *
+     * @return <tt>true</tt> for lists returned by {@link #snapshot()}.
+     */
+    public boolean isSnapshot() {
+        return frozen;
+    }
+
+    /**
+     * Returns number of changes made to the list so far. Pass it to
+     * {@link #changedRanges(long)} later to learn which digits changed.
+     *
+     * @return version of the digits.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Returns ranges of digits changed in place since the version: by
+     * <tt>set</tt>, <tt>swap</tt> and sorting. Ranges are given as pairs
+     * of first (inclusive) and last (exclusive) index, in ascending order
+     * and merged where they touch.<p>
+     *
+     * Changes which move digits to other positions, such as adding,
+     * removing or stripping leading zeros, make every digit dirty, and
+     * only the last 64 changes are remembered; in
+     * these cases <tt>null</tt> is returned and values derived from the
+     * digits have to be computed anew.
+     *
+     * @param since - value of {@link #version()} seen before.
+     * @return index ranges as <tt>[from1, to1, from2, to2, ...]</tt>, or
+     *      <tt>null</tt> if not known.
+     * @throws IllegalArgumentException if the version is not reached yet.
+     */
+    public int[] changedRanges(long since) {
+        if (since < 0 || since > version) throw new IllegalArgumentException("Version: " + since);
+        if (since < shapeVersion || version - since > EDIT_LOG) return null;
+        int n = (int) (version - since);
+        long[] ranges = new long[n];
+        for (int i = 0; i < n; i++) {
+            int slot = (int) ((since + 1 + i) % EDIT_LOG) * 2;
+            ranges[i] = (long) edits[slot] << 32 | edits[slot + 1];
+        }
+        Arrays.sort(ranges);
+        int[] result = new int[2 * n];
+        int k = 0;
+        for (long r : ranges) {
+            int from = (int) (r >>> 32);
+            int to = (int) r;
+            if (k > 0 && from <= result[k - 1]) {
+                result[k - 1] = Math.max(result[k - 1], to);
+            } else {
+                result[k++] = from;
+                result[k++] = to;
+            }
+        }
+        return k == result.length ? result : Arrays.copyOf(result, k);
+    }
+
+    // Helper: records change of digits [from, to) in place
+    private void changed(int from, int to) {
+        if (edits == null) edits = new int[2 * EDIT_LOG];
+        version++;
+        int slot = (int) (version % EDIT_LOG) * 2;
+        edits[slot] = from;
+        edits[slot + 1] = to;
+    }
+
+    // Helper: records change which moved digits
+    private void reshaped() {
+        shapeVersion = ++version;
+    }
+
+    // Helper: called before every change. The first change after
+    // snapshot() gives the list its own node headers over the same,
+    // now shared, digit arrays.
+    private void prepareWrite() {
+        if (frozen) throw new UnsupportedOperationException("Snapshot is read-only");
+        if (!chainShared) return;
+        chainShared = false;
+        Node last = null;
+        for (Node x = head; x != null; x = x.next) {
+            Node copy = new Node(x);
+            if (last == null) {
+                head = copy;
+            } else {
+                last.next = copy;
+                copy.prev = last;
+            }
+            last = copy;
+        }
+        tail = last;
+        cursor = null;
+    }
+
+    // Helper: copies shared digits before they are changed in place
+    private static void own(Node x) {
+        if (x.shared) {
+            x.digits = x.digits.clone();
+            x.shared = false;
+        }
+    }
+
+    /**
+     * Returns number of digits without leading zeros, which is 0 for
+     * empty list and for zero.
+     *
+     * @return number of significant digits.
+     */
+    public int significantLength() {
+        return size - leadingZeros();
+    }
+
+    /**
+     * Returns whether the list is in canonical mode.
+     *
+     * @return <tt>true</tt> if leading zeros are stripped.
+     */
+    public boolean isCanonical() {
+        return canonical;
+    }
+
+    /**
+     * Switches canonical mode. In canonical mode leading zeros are stripped
+     * immediately and after every change of the list, including
+     * <tt>shiftLeft</tt> on zero and sorting, so equal numbers have equal
+     * digits. Zero keeps a single digit, empty list stays empty.<p>
+     *
+     * Stripping moves the head chunk offset, so it does not depend on the
+     * number of remaining digits.
+     *
+     * @param canonical - <tt>true</tt> to strip leading zeros.
+     */
+    public void setCanonical(boolean canonical) {
+        prepareWrite();
+        this.canonical = canonical;
+        canonicalize();
+    }
+
+    // Helper: strips leading zeros in canonical mode
+    private void canonicalize() {
+        if (!canonical || size <= 1) return;
+        int n = Math.min(leadingZeros(), size - 1);
+        if (n == 0) return;
+        zeros -= n;
+        size -= n;
+        hashValid = false;
+        reshaped();
+        // Leading zeros do not change the inline value
+        if (head == null) return;
+        while (n > 0 && n >= head.count()) {
+            n -= head.count();
+            unlink(head);
+        }
+        head.start += n;
+        cursor = null;
+    }
+
+    // Helper: number of leading zero digits, cached until the next change
+    private int leadingZeros() {
+        if (zeros >= 0) return zeros;
+        if (head == null) return zeros = size - digitCount(small, Radix.table(storedBase));
+        int n = 0;
+        for (Node x = head; x != null; x = x.next) {
+            for (int i = x.start; i < x.end; i++) {
+                if (x.digits[i] != 0) return zeros = n;
+                n++;
+            }
+        }
+        return zeros = n;
+    }
+
+    // Helper: number of zeros at the start of the array range
+    private static int leadingZeros(byte[] digits, int off, int len) {
+        int n = 0;
+        while (n < len && digits[off + n] == 0) n++;
+        return n;
+    }
+
+    // Helper: bounds of log2 of the number from its length and leading digits
+    private double[] magnitudeBounds(int lz) {
+        Radix.Table t = Radix.table(storedBase);
+        int len = size - lz;
+        int k = Math.min(len, t.digitsPerWord);
+        long lead = 0;
+        byte[] first = copyDigits(lz, k);
+        for (byte d : first) lead = lead * storedBase + d;
+        double scale = (double) (len - k) * t.log2;
+        return new double[] {
+                Math.log(lead) / Math.log(2) + scale,
+                Math.log(lead + 1) / Math.log(2) + scale
+        };
+    }
+
+    // Helper: copies count digits starting at index
+    private byte[] copyDigits(int from, int count) {
+        byte[] result = new byte[count];
+        if (count == 0) return result;
+        int p = locate(from);
+        Node x = cursor;
+        int i = 0;
+        while (i < count) {
+            int n = Math.min(count - i, x.end - p);
+            System.arraycopy(x.digits, p, result, i, n);
+            i += n;
+            x = x.next;
+            if (x != null) p = x.start;
         }
-        
-        if (s1.isEmpty()) s1 = "0";
-        if (s2 == null || s2.isEmpty()) s2 = "0";
+        return result;
+    }
 
-        BigInteger val1 = new BigInteger(s1);
-        BigInteger val2 = new BigInteger(s2);
+    // Helper: adds digits of columns [from, to), counted from the least
+    // significant digit, to columns[column - from]. Does not use the
+    // cursor, so the list may be read by several threads at once.
+    void addColumns(long[] columns, int from, int to) {
+        int hi = size - 1 - from;
+        if (hi < 0) return;
+        int count = Math.min(to, size) - from;
+        Node x = last();
+        int last = size - 1;
+        while (last - x.count() >= hi) {
+            last -= x.count();
+            x = x.prev;
+        }
+        int p = x.end - 1 - (last - hi);
+        for (int c = 0; c < count; c++) {
+            while (p < x.start) {
+                x = x.prev;
+                p = x.end - 1;
+            }
+            columns[c] += x.digits[p--];
+        }
+    }
 
-        BigInteger sum = val1.add(val2);
-        
-        return new NumberListImpl(sum.toString());
+    // Helper: lexicographic comparison of digit ranges of equal length
+    private static int compareDigits(NumberListImpl a, int fromA, NumberListImpl b, int fromB, int len) {
+        if (len == 0) return 0;
+        int pa = a.locate(fromA);
+        Node x = a.cursor;
+        int pb = b.locate(fromB);
+        Node y = b.cursor;
+        while (len > 0) {
+            while (pa == x.end) {
+                x = x.next;
+                pa = x.start;
+            }
+            while (pb == y.end) {
+                y = y.next;
+                pb = y.start;
+            }
+            int n = Math.min(len, Math.min(x.end - pa, y.end - pb));
+            int c = Arrays.compare(x.digits, pa, pa + n, y.digits, pb, pb + n);
+            if (c != 0) return c;
+            pa += n;
+            pb += n;
+            len -= n;
+        }
+        return 0;
     }
 
 
@@ -213,32 +1168,112 @@ public class NumberListImpl implements NumberList {
      * @return string representation in <b>decimal</b> scale.
      */
     public String toDecimalString() {
-        String raw = getRawString();
-        if (raw.isEmpty()) return "";
-        
+        if (size == 0) return "";
+        long started = NumberListMetrics.start();
+        String result = new String(decimalChars(), StandardCharsets.ISO_8859_1);
+        NumberListMetrics.record(NumberListMetrics.Operation.TO_DECIMAL_STRING, started, size);
+        return result;
+    }
+
+    // Helper: Latin-1 characters of toDecimalString()
+    private byte[] decimalChars() {
         // If base is not 10, convert back to decimal for output
-        if (storedBase != 10) {
+        if (storedBase != 10 && size != 0) {
             try {
-                return new BigInteger(raw, storedBase).toString(10);
+                byte[] digits = convertDigits(10);
+                Radix.toLatin1(digits, 0, digits.length);
+                return digits;
             } catch (NumberFormatException e) {
                 // Should not happen if logic is correct, but safe fallback
-                return raw; 
             }
         }
-        
-        return raw;
+        return rawChars();
     }
 
     // Returns raw digits stored in the list without conversion
     private String getRawString() {
-        if (head == null) return "";
-        StringBuilder sb = new StringBuilder();
-        Node current = head;
-        while (current != null) {
-            sb.append(current.value);
-            current = current.next;
+        if (size == 0) return "";
+        return new String(rawChars(), StandardCharsets.ISO_8859_1);
+    }
+
+    // Helper: Latin-1 characters of the stored digits, in exact size array
+    private byte[] rawChars() {
+        byte[] chars = new byte[size];
+        int i = 0;
+        for (Node x = first(); x != null; x = x.next) {
+            for (int j = x.start; j < x.end; j++) {
+                chars[i++] = Radix.toLatin1(x.digits[j]);
+            }
+        }
+        return chars;
+    }
+
+
+    /**
+     * Writes stored digits, as returned by {@link #toString()}, to the
+     * character stream, without building a string of the whole number.
+     *
+     * @param out - destination of the characters.
+     * @throws IOException if the destination fails.
+     */
+    public void writeDigits(Appendable out) throws IOException {
+        char[] buffer = new char[Math.min(size, WRITE_BUFFER)];
+        Writer writer = out instanceof Writer ? (Writer) out : null;
+        CharBuffer chars = CharBuffer.wrap(buffer);
+        int n = 0;
+        for (Node x = first(); x != null; x = x.next) {
+            for (int i = x.start; i < x.end; i++) {
+                if (n == buffer.length) {
+                    if (writer != null) writer.write(buffer, 0, n); else out.append(chars, 0, n);
+                    n = 0;
+                }
+                buffer[n++] = (char) Radix.toLatin1(x.digits[i]);
+            }
+        }
+        if (n > 0) {
+            if (writer != null) writer.write(buffer, 0, n); else out.append(chars, 0, n);
+        }
+    }
+
+
+    /**
+     * Writes stored digits, as returned by {@link #toString()}, to the
+     * stream as ASCII characters, without building a string of the whole
+     * number.
+     *
+     * @param out - destination of the characters.
+     * @throws IOException if the destination fails.
+     */
+    public void writeDigits(OutputStream out) throws IOException {
+        byte[] buffer = new byte[Math.min(size, WRITE_BUFFER)];
+        int n = 0;
+        for (Node x = first(); x != null; x = x.next) {
+            int i = x.start;
+            while (i < x.end) {
+                if (n == buffer.length) {
+                    out.write(buffer, 0, n);
+                    n = 0;
+                }
+                int len = Math.min(x.end - i, buffer.length - n);
+                System.arraycopy(x.digits, i, buffer, n, len);
+                Radix.toLatin1(buffer, n, len);
+                n += len;
+                i += len;
+            }
         }
-        return sb.toString();
+        if (n > 0) out.write(buffer, 0, n);
+    }
+
+
+    /**
+     * Writes stored digits to the print stream, which is both a byte and
+     * a character destination, as ASCII characters.
+     *
+     * @param out - destination of the characters.
+     * @throws IOException if the destination fails.
+     */
+    public void writeDigits(PrintStream out) throws IOException {
+        writeDigits((OutputStream) out);
     }
 
     @Override
@@ -250,6 +1285,7 @@ public class NumberListImpl implements NumberList {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
+        if (o instanceof NumberListImpl) return equalDigits((NumberListImpl) o);
         if (!(o instanceof List)) return false;
         
         List<?> other = (List<?>) o;
@@ -268,6 +1304,78 @@ public class NumberListImpl implements NumberList {
         return true;
     }
 
+    // Helper: compares sizes, then cached digests, then chunk ranges in bulk
+    private boolean equalDigits(NumberListImpl other) {
+        if (size != other.size) return false;
+        if (hashValid && other.hashValid && digest != other.digest) return false;
+
+        if (head == null && other.head == null && storedBase == other.storedBase) {
+            return small == other.small;
+        }
+        Node a = first();
+        Node b = other.first();
+        int pa = a == null ? 0 : a.start;
+        int pb = b == null ? 0 : b.start;
+        int left = size;
+        while (left > 0) {
+            while (pa == a.end) {
+                a = a.next;
+                pa = a.start;
+            }
+            while (pb == b.end) {
+                b = b.next;
+                pb = b.start;
+            }
+            int n = Math.min(a.end - pa, b.end - pb);
+            if (!Arrays.equals(a.digits, pa, pa + n, b.digits, pb, pb + n)) return false;
+            pa += n;
+            pb += n;
+            left -= n;
+        }
+        return true;
+    }
+
+
+    /**
+     * Returns hash code as defined by {@link List#hashCode()}.
+     * The value is cached until the list is modified.
+     *
+     * @return hash code of the list.
+     */
+    @Override
+    public int hashCode() {
+        if (!hashValid) computeHashes();
+        return hash;
+    }
+
+
+    /**
+     * Returns 64-bit digest of the digits. Equal lists have equal digests,
+     * so different digests prove the lists differ. The value is cached
+     * until the list is modified.
+     *
+     * @return digest of the digits.
+     */
+    public long digest() {
+        if (!hashValid) computeHashes();
+        return digest;
+    }
+
+    // Helper: computes hash code and digest in one pass
+    private void computeHashes() {
+        int h = 1;
+        long g = DIGEST_SEED;
+        for (Node x = first(); x != null; x = x.next) {
+            for (int i = x.start; i < x.end; i++) {
+                h = 31 * h + x.digits[i];
+                g = (g ^ x.digits[i]) * DIGEST_PRIME;
+            }
+        }
+        hash = h;
+        digest = g;
+        hashValid = true;
+    }
+
 
     @Override
     public int size() {
@@ -290,19 +1398,22 @@ public class NumberListImpl implements NumberList {
     @Override
     public Iterator<Byte> iterator() {
         return new Iterator<Byte>() {
-            private Node current = head;
+            private Node current = first();
+            private int pos = current == null ? 0 : current.start;
 
             @Override
             public boolean hasNext() {
+                while (current != null && pos == current.end) {
+                    current = current.next;
+                    if (current != null) pos = current.start;
+                }
                 return current != null;
             }
 
             @Override
             public Byte next() {
                 if (!hasNext()) throw new NoSuchElementException();
-                Byte val = current.value;
-                current = current.next;
-                return val;
+                return current.digits[pos++];
             }
         };
     }
@@ -312,8 +1423,9 @@ public class NumberListImpl implements NumberList {
     public Object[] toArray() {
         Object[] arr = new Object[size];
         int i = 0;
-        for (Node x = head; x != null; x = x.next)
-            arr[i++] = x.value;
+        for (Node x = first(); x != null; x = x.next)
+            for (int j = x.start; j < x.end; j++)
+                arr[i++] = x.digits[j];
         return arr;
     }
 
@@ -324,8 +1436,9 @@ public class NumberListImpl implements NumberList {
             a = (T[])java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), size);
         int i = 0;
         Object[] result = a;
-        for (Node x = head; x != null; x = x.next)
-            result[i++] = x.value;
+        for (Node x = first(); x != null; x = x.next)
+            for (int j = x.start; j < x.end; j++)
+                result[i++] = x.digits[j];
         if (a.length > size)
             a[size] = null;
         return a;
@@ -335,41 +1448,148 @@ public class NumberListImpl implements NumberList {
     @Override
     public boolean add(Byte e) {
         if (e == null) throw new NullPointerException();
-        Node newNode = new Node(e);
-        if (head == null) {
-            head = newNode;
-            tail = newNode;
+        appendDigit(e);
+        return true;
+    }
+
+    // Helper: appends digit to the tail chunk
+    void appendDigit(byte digit) {
+        if (frozen || chainShared) prepareWrite();
+        if (head == null && size < Radix.table(storedBase).longDigits && digit >= 0 && digit < storedBase) {
+            small = small * storedBase + digit;
         } else {
-            tail.next = newNode;
-            newNode.prev = tail;
-            tail = newNode;
+            inflate();
+            Node t = tail;
+            if (t == null || t.end == t.digits.length) {
+                t = growTail(1);
+            }
+            t.digits[t.end++] = digit;
         }
+        if (zeros == size && digit == 0) zeros++;
         size++;
-        return true;
+        reshaped();
+        if (hashValid) {
+            hash = 31 * hash + digit;
+            digest = (digest ^ digit) * DIGEST_PRIME;
+        }
+        if (canonical) canonicalize();
+    }
+
+    // Helper: appends digits, copying them chunk by chunk
+    void appendDigits(byte[] src, int off, int len) {
+        prepareWrite();
+        hashValid = false;
+        reshaped();
+        if (zeros == size) zeros += leadingZeros(src, off, len);
+        if (appendInline(src, off, len)) {
+            canonicalize();
+            return;
+        }
+        inflate();
+        while (len > 0) {
+            Node t = tail;
+            if (t == null || t.end == t.digits.length) {
+                t = growTail(len);
+            }
+            int n = Math.min(len, t.digits.length - t.end);
+            System.arraycopy(src, off, t.digits, t.end, n);
+            t.end += n;
+            size += n;
+            off += n;
+            len -= n;
+        }
+        canonicalize();
+    }
+
+    // Helper: prepares room for the expected number of digits at the tail
+    void reserve(int digits) {
+        prepareWrite();
+        if (head == null && size + digits <= Radix.table(storedBase).longDigits) return;
+        inflate();
+        Node t = tail;
+        if (digits > 0 && (t == null || t.digits.length - t.end < digits && t.digits.length < MAX_CHUNK)) {
+            growTail(digits);
+        }
+    }
+
+    // Helper: grows the tail chunk up to MAX_CHUNK or links a new one
+    private Node growTail(int expected) {
+        Node t = tail;
+        if (t != null && t.digits.length < MAX_CHUNK) {
+            int capacity = Math.min(MAX_CHUNK, Math.max(t.digits.length * 2, t.end + expected));
+            storageBytes += chunkBytes(capacity) - chunkBytes(t.digits.length);
+            t.digits = Arrays.copyOf(t.digits, capacity);
+            t.shared = false;
+            NumberListMetrics.recordAllocation(capacity);
+            return t;
+        }
+        Node newNode = new Node(Math.min(MAX_CHUNK, Math.max(MIN_CHUNK, expected)));
+        NumberListMetrics.recordAllocation(newNode.digits.length);
+        storageBytes += chunkBytes(newNode.digits.length);
+        if (t == null) {
+            head = newNode;
+        } else {
+            t.next = newNode;
+            newNode.prev = t;
+        }
+        tail = newNode;
+        return newNode;
     }
 
 
     @Override
     public boolean remove(Object o) {
-        if (o == null) {
-            for (Node x = head; x != null; x = x.next) {
-                if (x.value == null) {
-                    unlink(x);
-                    return true;
-                }
-            }
+        int index = indexOf(o);
+        if (index == -1) return false;
+        removeAt(index);
+        return true;
+    }
+
+    // Helper: removes digit, shifting the shorter part of its chunk
+    private byte removeAt(int index) {
+        prepareWrite();
+        byte digit;
+        if (head == null) {
+            checkIndex(index);
+            long[] powers = Radix.table(storedBase).longPowers;
+            int pos = size - 1 - index;
+            digit = inlineDigit(index);
+            small = small / powers[pos + 1] * powers[pos] + small % powers[pos];
+            size--;
         } else {
-            for (Node x = head; x != null; x = x.next) {
-                if (o.equals(x.value)) {
-                    unlink(x);
-                    return true;
-                }
+            int p = locate(index);
+            Node x = cursor;
+            if (Math.min(p - x.start, x.end - 1 - p) > MAX_CHUNK || x.shared && x.count() > MAX_CHUNK) {
+                split(x);
+                p = locate(index);
+                x = cursor;
+            }
+            own(x);
+            digit = x.digits[p];
+            if (p - x.start < x.end - 1 - p) {
+                System.arraycopy(x.digits, x.start, x.digits, x.start + 1, p - x.start);
+                x.start++;
+            } else {
+                System.arraycopy(x.digits, p + 1, x.digits, p, x.end - 1 - p);
+                x.end--;
             }
+            size--;
+            if (x.start == x.end) unlink(x);
         }
-        return false;
+        cursor = null;
+        hashValid = false;
+        reshaped();
+        if (index < zeros) {
+            zeros--;
+        } else if (index == zeros) {
+            zeros = -1;
+        }
+        canonicalize();
+        return digit;
     }
-    
+
     private void unlink(Node x) {
+        storageBytes -= chunkBytes(x.digits.length);
         final Node next = x.next;
         final Node prev = x.prev;
 
@@ -387,8 +1607,7 @@ public class NumberListImpl implements NumberList {
             x.next = null;
         }
 
-        x.value = null;
-        size--;
+        x.digits = null;
     }
 
 
@@ -403,11 +1622,29 @@ public class NumberListImpl implements NumberList {
 
     @Override
     public boolean addAll(Collection<? extends Byte> c) {
-        boolean modified = false;
-        for (Byte e : c) {
-            if (add(e)) modified = true;
+        if (c instanceof NumberListImpl) {
+            NumberListImpl other = (NumberListImpl) c;
+            if (other.size == 0) return false;
+            if (other == this) {
+                byte[] digits = toDigitArray();
+                appendDigits(digits, 0, digits.length);
+            } else {
+                for (Node x = other.first(); x != null; x = x.next) {
+                    appendDigits(x.digits, x.start, x.count());
+                }
+            }
+            return true;
+        }
+        // Elements are checked before the list is changed
+        Object[] elements = c.toArray();
+        byte[] digits = new byte[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            if (elements[i] == null) throw new NullPointerException();
+            digits[i] = (Byte) elements[i];
         }
-        return modified;
+        if (digits.length == 0) return false;
+        appendDigits(digits, 0, digits.length);
+        return true;
     }
 
 
@@ -419,14 +1656,50 @@ public class NumberListImpl implements NumberList {
 
     @Override
     public boolean removeAll(Collection<?> c) {
-        boolean modified = false;
-        for (Object e : c) {
-            while (contains(e)) {
-                remove(e);
-                modified = true;
+        prepareWrite();
+        inflate();
+        // Ask the collection once per distinct digit, not once per element
+        byte[] verdict = new byte[256];
+        int kept = 0;
+        Node w = head;
+        int wp = w == null ? 0 : w.start;
+        for (Node x = head; x != null; x = x.next) {
+            for (int i = x.start; i < x.end; i++) {
+                byte d = x.digits[i];
+                int v = d & 0xFF;
+                if (verdict[v] == 0) verdict[v] = (byte) (c.contains(d) ? 1 : 2);
+                if (verdict[v] == 1) continue;
+                // Writer never overtakes reader, so digits are compacted in place
+                if (wp == w.end) {
+                    w = w.next;
+                    wp = w.start;
+                }
+                own(w);
+                w.digits[wp++] = d;
+                kept++;
+            }
+        }
+        if (kept == size) return false;
+
+        if (kept == 0) {
+            head = null;
+            tail = null;
+            storageBytes = 0;
+        } else {
+            for (Node x = w.next; x != null; x = x.next) {
+                storageBytes -= chunkBytes(x.digits.length);
             }
+            w.end = wp;
+            w.next = null;
+            tail = w;
         }
-        return modified;
+        size = kept;
+        cursor = null;
+        hashValid = false;
+        reshaped();
+        zeros = -1;
+        canonicalize();
+        return true;
     }
 
 
@@ -438,25 +1711,53 @@ public class NumberListImpl implements NumberList {
 
     @Override
     public void clear() {
+        if (frozen) throw new UnsupportedOperationException("Snapshot is read-only");
+        chainShared = false;
         head = null;
         tail = null;
+        cursor = null;
+        hashValid = false;
+        zeros = 0;
         size = 0;
+        small = 0;
+        storageBytes = 0;
+        reshaped();
         storedBase = 10; // Reset base to decimal
     }
 
 
     @Override
     public Byte get(int index) {
-        return getNode(index).value;
+        if (head == null) {
+            checkIndex(index);
+            return inlineDigit(index);
+        }
+        adapt();
+        int p = locate(index);
+        return cursor.digits[p];
     }
 
 
     @Override
     public Byte set(int index, Byte element) {
         if (element == null) throw new NullPointerException();
-        Node x = getNode(index);
-        Byte oldVal = x.value;
-        x.value = element;
+        prepareWrite();
+        byte oldVal;
+        if (head == null && element >= 0 && element < storedBase) {
+            checkIndex(index);
+            oldVal = inlineDigit(index);
+            small += (element - oldVal) * Radix.table(storedBase).longPowers[size - 1 - index];
+        } else {
+            inflate();
+            adapt();
+            int p = locateOwned(index);
+            oldVal = cursor.digits[p];
+            cursor.digits[p] = element;
+        }
+        hashValid = false;
+        changed(index, index + 1);
+        if (index < zeros ? element != 0 : index == zeros && element == 0) zeros = -1;
+        canonicalize();
         return oldVal;
     }
 
@@ -469,41 +1770,65 @@ public class NumberListImpl implements NumberList {
 
     @Override
     public Byte remove(int index) {
-        Node x = getNode(index);
-        Byte element = x.value;
-        unlink(x);
-        return element;
+        return removeAt(index);
     }
 
-    private Node getNode(int index) {
-        if (index < 0 || index >= size)
-            throw new IndexOutOfBoundsException();
-        Node x = head;
-        if (index < (size >> 1)) {
-            for (int i = 0; i < index; i++)
-                x = x.next;
-        } else {
-            x = tail;
-            for (int i = size - 1; i > index; i--)
+    // Helper: finds chunk with the digit, starting from the closest of
+    // head, tail and cursor. Leaves the chunk in cursor and returns
+    // position of the digit in its array.
+    private int locate(int index) {
+        checkIndex(index);
+        if (head == null) {
+            cursor = inlineNode();
+            cursorIndex = 0;
+            return index;
+        }
+        Node x = cursor;
+        int first = cursorIndex;
+        if (x == null || index < first || index >= first + x.count()) {
+            if (x == null || Math.abs(index - first) > Math.min(index, size - 1 - index)) {
+                if (index < (size >> 1)) {
+                    x = head;
+                    first = 0;
+                } else {
+                    x = tail;
+                    first = size - tail.count();
+                }
+            }
+            int hops = 0;
+            while (index < first) {
                 x = x.prev;
+                first -= x.count();
+                hops++;
+            }
+            while (index >= first + x.count()) {
+                first += x.count();
+                x = x.next;
+                hops++;
+            }
+            cursor = x;
+            cursorIndex = first;
+            this.hops += hops;
+            NumberListMetrics.recordLocate(hops);
         }
-        return x;
+        return x.start + index - first;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException();
     }
 
 
     @Override
     public int indexOf(Object o) {
+        if (!(o instanceof Byte)) return -1;
+        byte d = (Byte) o;
         int index = 0;
-        if (o == null) {
-            for (Node x = head; x != null; x = x.next) {
-                if (x.value == null) return index;
-                index++;
-            }
-        } else {
-            for (Node x = head; x != null; x = x.next) {
-                if (o.equals(x.value)) return index;
-                index++;
-            }
+        for (Node x = first(); x != null; x = x.next) {
+            int i = DigitSearch.indexOf(x.digits, x.start, x.end, d);
+            if (i >= 0) return index + i - x.start;
+            index += x.count();
         }
         return -1;
     }
@@ -511,26 +1836,293 @@ public class NumberListImpl implements NumberList {
 
     @Override
     public int lastIndexOf(Object o) {
-        int index = size - 1;
-        if (o == null) {
-            for (Node x = tail; x != null; x = x.prev) {
-                if (x.value == null) return index;
-                index--;
+        if (!(o instanceof Byte)) return -1;
+        byte d = (Byte) o;
+        int index = size;
+        for (Node x = last(); x != null; x = x.prev) {
+            index -= x.count();
+            int i = DigitSearch.lastIndexOf(x.digits, x.start, x.end, d);
+            if (i >= 0) return index + i - x.start;
+        }
+        return -1;
+    }
+
+
+    /**
+     * Returns index of the first occurrence of the digit sequence.
+     *
+     * @param pattern - digits to find, most significant first.
+     * @return index of the first digit of the occurrence, or -1.
+     * @throws IllegalArgumentException if the pattern is empty.
+     */
+    public int indexOfSequence(byte[] pattern) {
+        checkPattern(pattern);
+        int[] found = {-1};
+        DigitSearch.Segments segments = segments();
+        DigitSearch.find(segments, 0, segments.count, pattern, i -> {
+            found[0] = i;
+            return false;
+        });
+        return found[0];
+    }
+
+    /**
+     * Returns index of the first occurrence of the digits of other list.
+     *
+     * @param pattern - digits to find.
+     * @return index of the first digit of the occurrence, or -1.
+     * @throws IllegalArgumentException if the pattern is empty.
+     */
+    public int indexOfSequence(NumberList pattern) {
+        return indexOfSequence(asImpl(pattern).toDigitArray());
+    }
+
+    /**
+     * Returns number of occurrences of the digit sequence, including
+     * overlapping ones.
+     *
+     * @param pattern - digits to find, most significant first.
+     * @return number of occurrences.
+     * @throws IllegalArgumentException if the pattern is empty.
+     */
+    public int countOccurrences(byte[] pattern) {
+        return countOccurrences(pattern, false);
+    }
+
+    /**
+     * Returns number of occurrences of the digit sequence, including
+     * overlapping ones, optionally searching chunks of the list in parallel
+     * on the common fork-join pool.
+     *
+     * @param pattern - digits to find, most significant first.
+     * @param parallel - <tt>true</tt> to search in parallel.
+     * @return number of occurrences.
+     * @throws IllegalArgumentException if the pattern is empty.
+     */
+    public int countOccurrences(byte[] pattern, boolean parallel) {
+        checkPattern(pattern);
+        return DigitSearch.countAll(segments(), pattern, parallel);
+    }
+
+    /**
+     * Returns indexes of all occurrences of the digit sequence, including
+     * overlapping ones.
+     *
+     * @param pattern - digits to find, most significant first.
+     * @return indexes of the first digits of occurrences, in increasing order.
+     * @throws IllegalArgumentException if the pattern is empty.
+     */
+    public int[] findAll(byte[] pattern) {
+        return findAll(pattern, false);
+    }
+
+    /**
+     * Returns indexes of all occurrences of the digit sequence, including
+     * overlapping ones, optionally searching chunks of the list in parallel
+     * on the common fork-join pool.
+     *
+     * @param pattern - digits to find, most significant first.
+     * @param parallel - <tt>true</tt> to search in parallel.
+     * @return indexes of the first digits of occurrences, in increasing order.
+     * @throws IllegalArgumentException if the pattern is empty.
+     */
+    public int[] findAll(byte[] pattern, boolean parallel) {
+        checkPattern(pattern);
+        return DigitSearch.findAll(segments(), pattern, parallel);
+    }
+
+    private static void checkPattern(byte[] pattern) {
+        if (pattern.length == 0) throw new IllegalArgumentException("Empty pattern");
+    }
+
+    // Helper: digit ranges of the chunks, for search
+    private DigitSearch.Segments segments() {
+        int n = 0;
+        Node h = first();
+        for (Node x = h; x != null; x = x.next) n++;
+        byte[][] arrays = new byte[n][];
+        int[] starts = new int[n];
+        int[] ends = new int[n];
+        int i = 0;
+        for (Node x = h; x != null; x = x.next, i++) {
+            arrays[i] = x.digits;
+            starts[i] = x.start;
+            ends[i] = x.end;
+        }
+        return new DigitSearch.Segments(arrays, starts, ends);
+    }
+
+
+    /**
+     * Returns residue of the number modulo <tt>m</tt>, computed on the
+     * digits in their scale of notation. Empty list is treated as zero.
+     *
+     * @param m - modulus.
+     * @return residue from 0 to m - 1.
+     * @throws ArithmeticException if the modulus is not positive.
+     */
+    public int mod(int m) {
+        return (int) mod((long) m);
+    }
+
+    /**
+     * Returns residue of the number modulo <tt>m</tt>, computed on the
+     * digits in their scale of notation. Digits are folded into words by
+     * Horner's rule, so no memory is allocated unless the number is long
+     * enough to be reduced in parallel. Empty list is treated as zero.
+     *
+     * @param m - modulus.
+     * @return residue from 0 to m - 1.
+     * @throws ArithmeticException if the modulus is not positive.
+     */
+    public long mod(long m) {
+        Residues.checkModulus(m);
+        if (m == 1 || size == 0) return 0;
+        if (head == null) return small % m;
+        if (storedBase % m == 0) {
+            // Only the last digit matters, as for parity in even bases
+            return tail.digits[tail.end - 1] % m;
+        }
+        if (size >= Residues.PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            return Residues.reduce(segments(), m, storedBase);
+        }
+        int k = Residues.blockDigits(m, storedBase);
+        long bk = 1;
+        for (int i = 0; i < k; i++) bk *= storedBase;
+        long r = 0;
+        for (Node x = head; x != null; x = x.next) {
+            r = Residues.reduce(x.digits, x.start, x.end, r, m, storedBase, k, bk);
+        }
+        return r;
+    }
+
+    /**
+     * Returns this number raised to the power modulo <tt>m</tt>.
+     *
+     * @param exponent - non-negative exponent.
+     * @param m - modulus.
+     * @return residue from 0 to m - 1.
+     * @throws ArithmeticException if the exponent is negative
+     * or the modulus is not positive.
+     */
+    public long modPow(long exponent, long m) {
+        Residues.checkModulus(m);
+        if (exponent < 0) throw new ArithmeticException("Negative exponent: " + exponent);
+        return Residues.powMod(mod(m), exponent, m);
+    }
+
+    /**
+     * Returns this number raised to the power modulo <tt>m</tt>. Digits of
+     * the exponent are used in its own scale of notation, most significant
+     * first, so exponents of any length are supported. Lists of other types
+     * are treated as <b>decimal</b>.
+     *
+     * @param exponent - exponent, empty list is treated as zero.
+     * @param m - modulus.
+     * @return residue from 0 to m - 1.
+     * @throws ArithmeticException if the modulus is not positive.
+     */
+    public long modPow(NumberList exponent, long m) {
+        Residues.checkModulus(m);
+        NumberListImpl e = asImpl(exponent);
+        long r = mod(m);
+        long result = 1 % m;
+        for (Node x = e.first(); x != null; x = x.next) {
+            for (int i = x.start; i < x.end; i++) {
+                // result = result^base * r^digit
+                result = Residues.mulMod(Residues.powMod(result, e.storedBase, m),
+                        Residues.powMod(r, x.digits[i], m), m);
             }
+        }
+        return result;
+    }
+
+    /**
+     * Returns integer square root of the number, the largest number whose
+     * square does not exceed it, in the same scale of notation. Computed
+     * by Newton iteration on the digits, without conversion to
+     * <tt>BigInteger</tt> or text. Empty list is treated as zero.<p>
+     *
+     * Does not impact the original list.
+     *
+     * @return new list with the square root, without leading zeros.
+     * @throws NumberFormatException if some digit is out of range for the base.
+     */
+    public NumberListImpl sqrt() {
+        NumberListImpl result;
+        if (head == null) {
+            long r = (long) Math.sqrt(small);
+            while (r * r > small) r--;
+            while (r + 1 <= small / (r + 1)) r++;
+            result = fromLong(r, storedBase);
         } else {
-            for (Node x = tail; x != null; x = x.prev) {
-                if (o.equals(x.value)) return index;
-                index--;
-            }
+            result = fromDigits(DigitArithmetic.sqrt(checkedDigits(), storedBase), storedBase);
         }
-        return -1;
+        result.canonical = canonical;
+        return result;
+    }
+
+    /**
+     * Returns the number raised to the power, in the same scale of
+     * notation. Computed by square-and-multiply with Karatsuba products on
+     * the digits, without conversion to <tt>BigInteger</tt> or text.
+     * Zero to the power of zero is one, empty list is treated as zero.<p>
+     *
+     * Does not impact the original list.
+     *
+     * @param exponent - non-negative exponent.
+     * @return new list with the power, without leading zeros.
+     * @throws ArithmeticException if the exponent is negative or the power
+     *      would have more than <tt>Integer.MAX_VALUE</tt> digits.
+     * @throws NumberFormatException if some digit is out of range for the base.
+     */
+    public NumberListImpl pow(int exponent) {
+        if (exponent < 0) throw new ArithmeticException("Negative exponent: " + exponent);
+        NumberListImpl result = fromDigits(DigitArithmetic.pow(checkedDigits(), exponent, storedBase), storedBase);
+        result.canonical = canonical;
+        return result;
+    }
+
+    /**
+     * Returns greatest common divisor of this number and the other one, in
+     * the scale of notation of this list. The other number is converted
+     * first if its base differs; lists of other types are treated as
+     * <b>decimal</b>. Computed by Lehmer's algorithm, finished by binary
+     * GCD, on the digits without conversion to <tt>BigInteger</tt> or text.
+     * The divisor of zero and zero is zero, empty list is treated as zero.<p>
+     *
+     * Does not impact the original lists.
+     *
+     * @param other - second number.
+     * @return new list with the greatest common divisor, without leading zeros.
+     * @throws NumberFormatException if some digit is out of range for the base.
+     */
+    public NumberListImpl gcd(NumberList other) {
+        NumberListImpl o = asImpl(other);
+        if (o.storedBase != storedBase) o = o.changeScale(storedBase);
+        NumberListImpl result;
+        if (head == null && o.head == null) {
+            result = fromLong(DigitArithmetic.gcd(small, o.small), storedBase);
+        } else {
+            result = fromDigits(DigitArithmetic.gcd(checkedDigits(), o.checkedDigits(), storedBase), storedBase);
+        }
+        result.canonical = canonical;
+        return result;
+    }
+
+    // Helper: significant digits, which have to be in range for the base
+    private byte[] checkedDigits() {
+        byte[] digits = significantDigits();
+        Radix.checkDigits(digits, storedBase);
+        return digits;
     }
 
 
     @Override
     public ListIterator<Byte> listIterator() {
         return new ListIterator<Byte>() {
-             private Node current = head;
+             private Node current = first();
+             private int pos = current == null ? 0 : current.start;
              private int index = 0;
 
             @Override
@@ -539,10 +2131,12 @@ public class NumberListImpl implements NumberList {
             @Override
             public Byte next() {
                 if (!hasNext()) throw new NoSuchElementException();
-                Byte val = current.value;
-                current = current.next;
+                if (pos == current.end) {
+                    current = current.next;
+                    pos = current.start;
+                }
                 index++;
-                return val;
+                return current.digits[pos++];
             }
 
             @Override public boolean hasPrevious() { return false; }
@@ -573,47 +2167,87 @@ public class NumberListImpl implements NumberList {
         if (index1 < 0 || index1 >= size || index2 < 0 || index2 >= size) {
             return false;
         }
-        Node node1 = getNode(index1);
-        Node node2 = getNode(index2);
-        Byte temp = node1.value;
-        node1.value = node2.value;
-        node2.value = temp;
+        prepareWrite();
+        if (head == null) {
+            long[] powers = Radix.table(storedBase).longPowers;
+            long delta = inlineDigit(index2) - inlineDigit(index1);
+            small += delta * (powers[size - 1 - index1] - powers[size - 1 - index2]);
+        } else {
+            adapt();
+            int p1 = locateOwned(index1);
+            Node node1 = cursor;
+            int p2 = locateOwned(index2);
+            Node node2 = cursor;
+            byte temp = node1.digits[p1];
+            node1.digits[p1] = node2.digits[p2];
+            node2.digits[p2] = temp;
+        }
+        hashValid = false;
+        changed(index1, index1 + 1);
+        changed(index2, index2 + 1);
+        zeros = -1;
+        canonicalize();
         return true;
     }
 
 
     @Override
     public void sortAscending() {
-        ArrayList<Byte> temp = new ArrayList<>();
-        for (Byte b : this) temp.add(b);
-        Collections.sort(temp);
-        
-        this.clear();
-        for (Byte b : temp) this.add(b);
+        sortDigits(true);
     }
 
 
     @Override
     public void sortDescending() {
-        ArrayList<Byte> temp = new ArrayList<>();
-        for (Byte b : this) temp.add(b);
-        Collections.sort(temp, Collections.reverseOrder());
-        
-        this.clear();
-        for (Byte b : temp) this.add(b);
+        sortDigits(false);
+    }
+
+    // Helper: counting sort, digits are rewritten in place
+    private void sortDigits(boolean ascending) {
+        prepareWrite();
+        hashValid = false;
+        zeros = -1;
+        changed(0, size);
+        if (head == null) {
+            byte[] digits = inlineNode().digits;
+            Arrays.sort(digits);
+            long v = 0;
+            for (int i = 0; i < size; i++) {
+                v = v * storedBase + digits[ascending ? i : size - 1 - i];
+            }
+            small = v;
+            canonicalize();
+            return;
+        }
+        int[] counts = new int[256];
+        for (Node x = head; x != null; x = x.next)
+            for (int i = x.start; i < x.end; i++)
+                counts[x.digits[i] + 128]++;
+
+        int value = ascending ? 0 : 255;
+        int step = ascending ? 1 : -1;
+        for (Node x = head; x != null; x = x.next) {
+            own(x);
+            for (int i = x.start; i < x.end; i++) {
+                while (counts[value] == 0) value += step;
+                x.digits[i] = (byte) (value - 128);
+                counts[value]--;
+            }
+        }
+        canonicalize();
     }
 
 
     @Override
     public void shiftLeft() {
-        add((byte) 0);
+        appendDigit((byte) 0);
     }
 
 
     @Override
     public void shiftRight() {
         if (size > 0) {
-            remove(size - 1);
+            removeAt(size - 1);
         }
     }
 }
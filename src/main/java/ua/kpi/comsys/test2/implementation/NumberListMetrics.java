@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Operation counters and histograms of <tt>NumberListImpl</tt>.<p>
+ *
+ * Metrics are switched on by the system property
+ * <tt>ua.kpi.comsys.test2.metrics=true</tt>. The flag is a compile-time
+ * constant for the JIT, so when it is off all instrumentation is removed
+ * from the compiled code. When it is on, statistics are exported as
+ * MXBeans <tt>ua.kpi.comsys.test2:type=NumberListMetrics,operation=...</tt>
+ * and timed operations emit {@link NumberListEvent} to Flight Recorder.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+public final class NumberListMetrics {
+
+    /**
+     * System property which enables metrics.
+     */
+    public static final String ENABLED_PROPERTY = "ua.kpi.comsys.test2.metrics";
+
+    static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    static final String DOMAIN = "ua.kpi.comsys.test2";
+
+    /**
+     * Instrumented operations.
+     */
+    public enum Operation {
+        /** Walk to the chunk holding indexed digit; size is number of chunks walked. */
+        LOCATE("locate"),
+        /** Allocation of digit storage; size is number of bytes. */
+        ALLOCATE("allocate"),
+        /** Scale of notation change. */
+        CHANGE_SCALE("changeScale"),
+        /** Additional operation of the assignment. */
+        ADDITIONAL_OPERATION("additionalOperation"),
+        /** Rendering in decimal scale of notation. */
+        TO_DECIMAL_STRING("toDecimalString"),
+        /** Synchronous loading from file. */
+        LOAD("load"),
+        /** Synchronous saving to file. */
+        SAVE("save");
+
+        private final String displayName;
+        private final OperationStats stats = new OperationStats();
+
+        Operation(String displayName) {
+            this.displayName = displayName;
+        }
+
+        /**
+         * Returns operation name used in JMX and Flight Recorder.
+         */
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    static {
+        if (ENABLED) registerMBeans();
+    }
+
+    private NumberListMetrics() {
+    }
+
+    /**
+     * Returns <tt>true</tt> if metrics are collected.
+     *
+     * @return <tt>true</tt> if metrics are enabled.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Returns statistics of the operation.
+     *
+     * @param operation - instrumented operation.
+     * @return statistics view.
+     */
+    public static OperationStatsMXBean stats(Operation operation) {
+        return operation.stats;
+    }
+
+    /**
+     * Clears statistics of all operations.
+     */
+    public static void reset() {
+        for (Operation op : Operation.values()) {
+            op.stats.reset();
+        }
+    }
+
+    /**
+     * Registers statistics of all operations in the platform MBean server.
+     * Repeated registration is ignored.
+     */
+    public static synchronized void registerMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (Operation op : Operation.values()) {
+            try {
+                ObjectName name = objectName(op);
+                if (server.isRegistered(name)) continue;
+                server.registerMBean(new StandardMBean(op.stats, OperationStatsMXBean.class, true), name);
+            } catch (JMException e) {
+                throw new IllegalStateException("Cannot register metrics of " + op.displayName, e);
+            }
+        }
+    }
+
+    static ObjectName objectName(Operation op) throws JMException {
+        return new ObjectName(DOMAIN + ":type=NumberListMetrics,operation=" + op.displayName);
+    }
+
+    // Returns start time for record(), or 0 when metrics are off
+    static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    static void record(Operation op, long started, long digits) {
+        if (!ENABLED) return;
+        long elapsed = System.nanoTime() - started;
+        op.stats.record(elapsed, digits);
+        NumberListEvent event = new NumberListEvent();
+        if (event.shouldCommit()) {
+            event.operation = op.displayName;
+            event.digits = digits;
+            event.elapsed = elapsed;
+            event.commit();
+        }
+    }
+
+    static void recordLocate(int chunks) {
+        if (ENABLED) Operation.LOCATE.stats.recordSize(chunks);
+    }
+
+    static void recordAllocation(int bytes) {
+        if (ENABLED) Operation.ALLOCATE.stats.recordSize(bytes);
+    }
+}
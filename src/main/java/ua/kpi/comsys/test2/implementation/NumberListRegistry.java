@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Registry of live <tt>NumberListImpl</tt> instances and their memory
+ * footprint.<p>
+ *
+ * Tracking is switched on by the system property
+ * <tt>ua.kpi.comsys.test2.registry=true</tt>; every list constructed
+ * afterwards is then held by a weak reference in the {@link #global()}
+ * registry, which is exported as MXBean
+ * <tt>ua.kpi.comsys.test2:type=NumberListRegistry</tt>. Lists which are
+ * no longer reachable drop out on their own. Statistics are computed on
+ * request from per-list counters, without walking the digits, so they may
+ * be read by a monitoring thread while lists change; they are estimates.<p>
+ *
+ * Snapshots are separate lists and count the storage they share.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+public final class NumberListRegistry implements NumberListRegistryMXBean {
+
+    /**
+     * System property which enables tracking of lists.
+     */
+    public static final String ENABLED_PROPERTY = "ua.kpi.comsys.test2.registry";
+
+    static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    private static final NumberListRegistry GLOBAL = new NumberListRegistry();
+
+    static {
+        if (ENABLED) registerMBean();
+    }
+
+    private final Set<Entry> entries = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<NumberListImpl> queue = new ReferenceQueue<>();
+
+    private static final class Entry extends WeakReference<NumberListImpl> {
+        Entry(NumberListImpl list, ReferenceQueue<NumberListImpl> queue) {
+            super(list, queue);
+        }
+    }
+
+    NumberListRegistry() {
+    }
+
+    /**
+     * Returns registry of all lists, which is empty unless tracking is on.
+     *
+     * @return global registry.
+     */
+    public static NumberListRegistry global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Returns <tt>true</tt> if lists are tracked.
+     *
+     * @return <tt>true</tt> if tracking is enabled.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Registers the global registry in the platform MBean server.
+     * Repeated registration is ignored.
+     */
+    public static synchronized void registerMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = objectName();
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new StandardMBean(GLOBAL, NumberListRegistryMXBean.class, true), name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register list registry", e);
+        }
+    }
+
+    static ObjectName objectName() throws JMException {
+        return new ObjectName(NumberListMetrics.DOMAIN + ":type=NumberListRegistry");
+    }
+
+    // Called by every new list
+    static void track(NumberListImpl list) {
+        if (ENABLED) GLOBAL.register(list);
+    }
+
+    void register(NumberListImpl list) {
+        expunge();
+        entries.add(new Entry(list, queue));
+    }
+
+    private void expunge() {
+        for (Reference<?> r; (r = queue.poll()) != null; ) {
+            entries.remove(r);
+        }
+    }
+
+    @Override
+    public int getLiveLists() {
+        int n = 0;
+        for (Entry e : entries) {
+            if (e.get() != null) n++;
+        }
+        return n;
+    }
+
+    @Override
+    public long getTotalDigits() {
+        long n = 0;
+        for (Entry e : entries) {
+            NumberListImpl list = e.get();
+            if (list != null) n += list.size();
+        }
+        return n;
+    }
+
+    @Override
+    public long getTotalBytes() {
+        long n = 0;
+        for (Entry e : entries) {
+            NumberListImpl list = e.get();
+            if (list != null) n += list.estimatedFootprintBytes();
+        }
+        return n;
+    }
+
+    @Override
+    public Map<Integer, Long> getDigitsByBase() {
+        Map<Integer, Long> result = new TreeMap<>();
+        for (Entry e : entries) {
+            NumberListImpl list = e.get();
+            if (list != null) result.merge(list.getBase(), (long) list.size(), Long::sum);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Integer, Long> getBytesByBase() {
+        Map<Integer, Long> result = new TreeMap<>();
+        for (Entry e : entries) {
+            NumberListImpl list = e.get();
+            if (list != null) result.merge(list.getBase(), list.estimatedFootprintBytes(), Long::sum);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getListsByBackend() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Entry e : entries) {
+            NumberListImpl list = e.get();
+            if (list != null) result.merge(list.backend(), 1L, Long::sum);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getBytesByBackend() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Entry e : entries) {
+            NumberListImpl list = e.get();
+            if (list != null) result.merge(list.backend(), list.estimatedFootprintBytes(), Long::sum);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link NumberListRegistry}.<p>
+ *
+ * Bytes are estimates returned by
+ * {@link NumberListImpl#estimatedFootprintBytes()}. Breakdowns are keyed
+ * by base of the scale of notation and by storage backend name.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+public interface NumberListRegistryMXBean {
+
+    /** Returns number of live lists. */
+    int getLiveLists();
+
+    /** Returns total number of digits of live lists. */
+    long getTotalDigits();
+
+    /** Returns total estimated footprint of live lists, in bytes. */
+    long getTotalBytes();
+
+    /** Returns number of digits of live lists per base. */
+    Map<Integer, Long> getDigitsByBase();
+
+    /** Returns estimated footprint of live lists per base, in bytes. */
+    Map<Integer, Long> getBytesByBase();
+
+    /** Returns number of live lists per storage backend. */
+    Map<String, Long> getListsByBackend();
+
+    /** Returns estimated footprint of live lists per storage backend, in bytes. */
+    Map<String, Long> getBytesByBackend();
+}
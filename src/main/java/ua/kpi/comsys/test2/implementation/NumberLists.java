@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import ua.kpi.comsys.test2.NumberList;
+
+/**
+ * Static operations on <tt>NumberList</tt> values.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+public final class NumberLists {
+
+    private static final Comparator<NumberList> NUMERIC_ORDER =
+            (a, b) -> NumberListImpl.asImpl(a).compareNumeric(b);
+
+    private NumberLists() {
+    }
+
+    /**
+     * Returns comparator which orders lists by the numbers they represent,
+     * regardless of their scales of notation.
+     *
+     * @return numeric order comparator.
+     * @see NumberListImpl#compareNumeric(NumberList)
+     */
+    public static Comparator<NumberList> numericOrder() {
+        return NUMERIC_ORDER;
+    }
+
+    /**
+     * Returns sum of all numbers of the collection, in the scale of
+     * notation of the first one. Lists of other types are treated as
+     * <b>decimal</b>; empty collection gives <b>decimal</b> zero.<p>
+     *
+     * Large sums are computed in parallel on the common fork-join pool:
+     * digit columns are summed in independent segments, and carries between
+     * segments are resolved by a parallel prefix step. Operands in other
+     * scales of notation are converted first.<p>
+     *
+     * Does not impact the operands, but they must not be changed while
+     * the sum is computed.
+     *
+     * @param operands - numbers to add.
+     * @return new list with the sum, without leading zeros.
+     */
+    public static NumberListImpl sum(Collection<? extends NumberList> operands) {
+        int base = 10;
+        List<NumberListImpl> lists = new ArrayList<>(operands.size());
+        for (NumberList operand : operands) {
+            NumberListImpl list = NumberListImpl.asImpl(operand);
+            if (lists.isEmpty()) {
+                base = list.getBase();
+            } else if (list.getBase() != base) {
+                list = list.changeScale(base);
+            }
+            lists.add(list);
+        }
+        return NumberListImpl.fromDigits(ParallelSum.sum(lists, base), base);
+    }
+}
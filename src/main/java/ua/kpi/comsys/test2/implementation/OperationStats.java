@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+/**
+ * Statistics of a single operation: latency and size histograms.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+final class OperationStats implements OperationStatsMXBean {
+
+    private final Histogram latency = new Histogram();
+    private final Histogram sizes = new Histogram();
+
+    void record(long nanos, long size) {
+        latency.record(nanos);
+        sizes.record(size);
+    }
+
+    // For operations which are too short to be timed
+    void recordSize(long size) {
+        sizes.record(size);
+    }
+
+    @Override public long getCount() { return sizes.count(); }
+    @Override public long getTotalNanos() { return latency.sum(); }
+    @Override public double getMeanNanos() { return latency.mean(); }
+    @Override public long getMaxNanos() { return latency.max(); }
+    @Override public long getP50Nanos() { return latency.percentile(50); }
+    @Override public long getP99Nanos() { return latency.percentile(99); }
+    @Override public long getP999Nanos() { return latency.percentile(99.9); }
+    @Override public long getTotalSize() { return sizes.sum(); }
+    @Override public double getMeanSize() { return sizes.mean(); }
+    @Override public long getMaxSize() { return sizes.max(); }
+    @Override public long getP99Size() { return sizes.percentile(99); }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        sizes.reset();
+    }
+}
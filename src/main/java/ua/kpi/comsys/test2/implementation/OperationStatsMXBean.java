@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+/**
+ * Management interface of statistics of a single <tt>NumberListImpl</tt>
+ * operation, see {@link NumberListMetrics}.<p>
+ *
+ * Sizes are numbers of digits processed by the operation; for
+ * {@link NumberListMetrics.Operation#LOCATE} they are numbers of chunks
+ * walked, and for {@link NumberListMetrics.Operation#ALLOCATE} numbers of
+ * bytes allocated.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+public interface OperationStatsMXBean {
+
+    /** Returns number of recorded operations. */
+    long getCount();
+
+    /** Returns total time spent in the operation, in nanoseconds. */
+    long getTotalNanos();
+
+    /** Returns mean operation time, in nanoseconds. */
+    double getMeanNanos();
+
+    /** Returns maximal operation time, in nanoseconds. */
+    long getMaxNanos();
+
+    /** Returns median operation time, in nanoseconds. */
+    long getP50Nanos();
+
+    /** Returns 99th percentile of operation time, in nanoseconds. */
+    long getP99Nanos();
+
+    /** Returns 99.9th percentile of operation time, in nanoseconds. */
+    long getP999Nanos();
+
+    /** Returns total size processed by the operation. */
+    long getTotalSize();
+
+    /** Returns mean size processed by the operation. */
+    double getMeanSize();
+
+    /** Returns maximal size processed by the operation. */
+    long getMaxSize();
+
+    /** Returns 99th percentile of size processed by the operation. */
+    long getP99Size();
+
+    /** Clears the statistics. */
+    void reset();
+}
@@ -0,0 +1,535 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact binary file format for numbers.<p>
+ *
+ * Digits are kept in their own scale of notation and bit packed, using
+ * as few bits per digit as the base needs (4 bits for decimal, as in BCD).
+ * Packed digits are split into blocks of equal digit count, and each
+ * block may additionally be compressed with a run-length codec.<p>
+ *
+ * Layout, all integers are big-endian:
+ * <pre>
+ * header:  int magic, byte version, byte base, byte codec, int blockDigits
+ * block:   int digits, byte codec, int payloadLength, byte[payloadLength] payload
+ * end:     int 0
+ * trailer: long totalDigits, int blockCount, long[blockCount] blockOffsets,
+ *          long trailerOffset, int magic
+ * </pre>
+ *
+ * Blocks are written and read one at a time, so {@link Encoder} and
+ * {@link Decoder} use memory bounded by the block size. The trailer lets
+ * {@link BlockReader} find any block by digit index and decode only it.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+public final class PackedNumberFormat {
+
+    /**
+     * Block compression method.
+     */
+    public enum Codec {
+        /** Bit packed digits are stored as is. */
+        NONE,
+        /** Bit packed digits are run-length encoded. */
+        RLE
+    }
+
+    static final int MAGIC = 0x4E4C504B; // "NLPK"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 11;
+    static final int BLOCK_HEADER_SIZE = 9;
+
+    /**
+     * Default number of digits per block.
+     */
+    public static final int DEFAULT_BLOCK_DIGITS = 64 * 1024;
+
+    /**
+     * Largest number of digits per block. Readers reject larger blocks as
+     * corrupted, so a damaged header cannot make them allocate more.
+     */
+    public static final int MAX_BLOCK_DIGITS = 16 * 1024 * 1024;
+
+    private PackedNumberFormat() {
+    }
+
+    /**
+     * Returns number of bits used to store single digit in the specified base.
+     */
+    static int bitsPerDigit(int base) {
+        return 32 - Integer.numberOfLeadingZeros(base - 1);
+    }
+
+    static int packedLength(int digits, int bits) {
+        return (int) (((long) digits * bits + 7) / 8);
+    }
+
+    // Packs digits most significant bit first, last byte is padded with zeros
+    static void pack(byte[] digits, int count, int bits, byte[] out) {
+        long acc = 0;
+        int accBits = 0;
+        int p = 0;
+        for (int i = 0; i < count; i++) {
+            acc = (acc << bits) | digits[i];
+            accBits += bits;
+            while (accBits >= 8) {
+                accBits -= 8;
+                out[p++] = (byte) (acc >>> accBits);
+            }
+        }
+        if (accBits > 0) {
+            out[p] = (byte) (acc << (8 - accBits));
+        }
+    }
+
+    // Returns false if some unpacked digit is out of range for the base
+    static boolean unpack(byte[] in, int bits, int base, byte[] digits, int count) {
+        int mask = (1 << bits) - 1;
+        long acc = 0;
+        int accBits = 0;
+        int p = 0;
+        for (int i = 0; i < count; i++) {
+            while (accBits < bits) {
+                acc = (acc << 8) | (in[p++] & 0xFF);
+                accBits += 8;
+            }
+            accBits -= bits;
+            int d = (int) (acc >>> accBits) & mask;
+            if (d >= base) return false;
+            digits[i] = (byte) d;
+        }
+        return true;
+    }
+
+    private static IOException corrupted(String reason) {
+        return new IOException("Corrupted packed number: " + reason);
+    }
+
+    /**
+     * Streaming writer of the packed format.<p>
+     *
+     * Digits are accepted most significant first. Closing the encoder
+     * writes the trailer and closes the underlying stream.
+     */
+    public static final class Encoder implements Closeable {
+        private final DataOutputStream out;
+        private final int base;
+        private final int bits;
+        private final Codec codec;
+        private final byte[] block;
+        private final byte[] packed;
+        private final byte[] compressed;
+        private long[] offsets = new long[16];
+        private int blockCount;
+        private int count;
+        private long position;
+        private long total;
+        private boolean closed;
+
+        /**
+         * Creates encoder with default block size.
+         *
+         * @param out - destination stream.
+         * @param base - scale of notation of the digits.
+         * @param codec - block compression method.
+         * @throws IOException if header cannot be written.
+         */
+        public Encoder(OutputStream out, int base, Codec codec) throws IOException {
+            this(out, base, codec, DEFAULT_BLOCK_DIGITS);
+        }
+
+        /**
+         * Creates encoder.
+         *
+         * @param out - destination stream.
+         * @param base - scale of notation of the digits.
+         * @param codec - block compression method.
+         * @param blockDigits - number of digits per block, up to
+         *      {@link #MAX_BLOCK_DIGITS}.
+         * @throws IOException if header cannot be written.
+         * @throws IllegalArgumentException if base or block size is not supported.
+         */
+        public Encoder(OutputStream out, int base, Codec codec, int blockDigits) throws IOException {
+            Radix.checkBase(base);
+            if (blockDigits <= 0 || blockDigits > MAX_BLOCK_DIGITS) {
+                throw new IllegalArgumentException("Block size: " + blockDigits);
+            }
+            this.out = new DataOutputStream(out);
+            this.base = base;
+            this.bits = bitsPerDigit(base);
+            this.codec = codec;
+            this.block = new byte[blockDigits];
+            this.packed = new byte[packedLength(blockDigits, bits)];
+            this.compressed = codec == Codec.RLE
+                    ? new byte[RunLengthCodec.maxEncodedLength(packed.length)] : null;
+
+            this.out.writeInt(MAGIC);
+            this.out.writeByte(VERSION);
+            this.out.writeByte(base);
+            this.out.writeByte(codec.ordinal());
+            this.out.writeInt(blockDigits);
+            position = HEADER_SIZE;
+        }
+
+        /**
+         * Appends single digit.
+         *
+         * @param digit - digit in the encoder base.
+         * @throws IOException if block cannot be written.
+         */
+        public void write(int digit) throws IOException {
+            if (digit < 0 || digit >= base) {
+                throw new IllegalArgumentException("Digit " + digit + " is out of range for base " + base);
+            }
+            block[count++] = (byte) digit;
+            total++;
+            if (count == block.length) flushBlock();
+        }
+
+        /**
+         * Appends digits.
+         *
+         * @param digits - digits in the encoder base, most significant first.
+         * @param off - index of the first digit.
+         * @param len - number of digits.
+         * @throws IOException if block cannot be written.
+         */
+        public void write(byte[] digits, int off, int len) throws IOException {
+            for (int i = off; i < off + len; i++) {
+                write(digits[i]);
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            if (count == 0) return;
+            pack(block, count, bits, packed);
+            int length = packedLength(count, bits);
+            byte[] payload = packed;
+            Codec used = Codec.NONE;
+            if (codec == Codec.RLE) {
+                int rle = RunLengthCodec.encode(packed, length, compressed);
+                if (rle < length) {
+                    payload = compressed;
+                    length = rle;
+                    used = Codec.RLE;
+                }
+            }
+            if (blockCount == offsets.length) {
+                long[] grown = new long[offsets.length * 2];
+                System.arraycopy(offsets, 0, grown, 0, blockCount);
+                offsets = grown;
+            }
+            offsets[blockCount++] = position;
+
+            out.writeInt(count);
+            out.writeByte(used.ordinal());
+            out.writeInt(length);
+            out.write(payload, 0, length);
+            position += BLOCK_HEADER_SIZE + length;
+            count = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            try {
+                flushBlock();
+                out.writeInt(0);
+                long trailer = position + 4;
+                out.writeLong(total);
+                out.writeInt(blockCount);
+                for (int i = 0; i < blockCount; i++) {
+                    out.writeLong(offsets[i]);
+                }
+                out.writeLong(trailer);
+                out.writeInt(MAGIC);
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Streaming reader of the packed format.<p>
+     *
+     * Reads blocks sequentially and keeps only the current one in memory.
+     */
+    public static final class Decoder implements Closeable {
+        private final DataInputStream in;
+        private final int base;
+        private final int bits;
+        private final int blockDigits;
+        private final byte[] block;
+        private final byte[] packed;
+        private final byte[] payload;
+        private int count;
+        private int next;
+        private boolean finished;
+
+        /**
+         * Creates decoder and reads the header.
+         *
+         * @param in - source stream.
+         * @throws IOException if header is missing or corrupted.
+         */
+        public Decoder(InputStream in) throws IOException {
+            this.in = new DataInputStream(in);
+            if (this.in.readInt() != MAGIC) throw corrupted("bad magic");
+            if (this.in.readUnsignedByte() != VERSION) throw corrupted("unsupported version");
+            this.base = this.in.readUnsignedByte();
+            this.in.readUnsignedByte();
+            this.blockDigits = this.in.readInt();
+            if (base < Radix.MIN_BASE || base > Radix.MAX_BASE) throw corrupted("base " + base);
+            if (blockDigits <= 0 || blockDigits > MAX_BLOCK_DIGITS) {
+                throw corrupted("block size " + blockDigits);
+            }
+            this.bits = bitsPerDigit(base);
+            this.block = new byte[blockDigits];
+            this.packed = new byte[packedLength(blockDigits, bits)];
+            this.payload = new byte[RunLengthCodec.maxEncodedLength(packed.length)];
+        }
+
+        /**
+         * Returns scale of notation of the stored digits.
+         */
+        public int getBase() {
+            return base;
+        }
+
+        /**
+         * Reads up to <tt>len</tt> digits.
+         *
+         * @param digits - destination array.
+         * @param off - index of the first digit in destination.
+         * @param len - maximal number of digits to read.
+         * @return number of digits read, or -1 if there are no more digits.
+         * @throws IOException if data is corrupted.
+         */
+        public int read(byte[] digits, int off, int len) throws IOException {
+            if (next == count && !nextBlock()) return -1;
+            int n = Math.min(len, count - next);
+            System.arraycopy(block, next, digits, off, n);
+            next += n;
+            return n;
+        }
+
+        private boolean nextBlock() throws IOException {
+            if (finished) return false;
+            int digits = in.readInt();
+            if (digits == 0) {
+                finished = true;
+                return false;
+            }
+            readBlock(in, digits, blockDigits, bits, base, packed, payload, block);
+            count = digits;
+            next = 0;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    // Reads block body following its digit count into digits array
+    private static void readBlock(DataInputStream in, int digits, int blockDigits, int bits, int base,
+                                  byte[] packed, byte[] payload, byte[] block) throws IOException {
+        if (digits < 0 || digits > blockDigits) throw corrupted("block of " + digits + " digits");
+        int codec = in.readUnsignedByte();
+        int length = in.readInt();
+        int expected = packedLength(digits, bits);
+        if (length < 0 || length > payload.length) throw corrupted("block length " + length);
+        in.readFully(payload, 0, length);
+        decodePayload(codec, payload, length, packed, expected);
+        if (!unpack(packed, bits, base, block, digits)) throw corrupted("digit out of range");
+    }
+
+    private static void decodePayload(int codec, byte[] payload, int length, byte[] packed, int expected)
+            throws IOException {
+        if (codec == Codec.NONE.ordinal()) {
+            if (length != expected) throw corrupted("block length " + length);
+            System.arraycopy(payload, 0, packed, 0, length);
+        } else if (codec == Codec.RLE.ordinal()) {
+            if (!RunLengthCodec.decode(payload, length, packed, expected)) throw corrupted("bad run-length data");
+        } else {
+            throw corrupted("unknown codec " + codec);
+        }
+    }
+
+    /**
+     * Random access reader of packed files.<p>
+     *
+     * Uses the block index from the trailer, so a range of digits is read
+     * by decoding only the blocks which contain it. Safe for concurrent use.
+     */
+    public static final class BlockReader implements Closeable {
+        private final FileChannel channel;
+        private final int base;
+        private final int bits;
+        private final int blockDigits;
+        private final long size;
+        private final long[] offsets;
+
+        /**
+         * Opens packed file and reads its header and block index.
+         *
+         * @param path - packed file.
+         * @throws IOException if file cannot be read or is corrupted.
+         */
+        public BlockReader(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                ByteBuffer header = readFully(0, HEADER_SIZE);
+                if (header.getInt() != MAGIC) throw corrupted("bad magic");
+                if ((header.get() & 0xFF) != VERSION) throw corrupted("unsupported version");
+                base = header.get() & 0xFF;
+                header.get();
+                blockDigits = header.getInt();
+                if (base < Radix.MIN_BASE || base > Radix.MAX_BASE) throw corrupted("base " + base);
+                if (blockDigits <= 0 || blockDigits > MAX_BLOCK_DIGITS) {
+                    throw corrupted("block size " + blockDigits);
+                }
+                bits = bitsPerDigit(base);
+
+                long fileSize = channel.size();
+                ByteBuffer end = readFully(fileSize - 12, 12);
+                long trailer = end.getLong();
+                if (end.getInt() != MAGIC || trailer < HEADER_SIZE || trailer > fileSize - 24) {
+                    throw corrupted("bad trailer");
+                }
+                ByteBuffer counts = readFully(trailer, 12);
+                size = counts.getLong();
+                int blocks = counts.getInt();
+                if (size < 0 || blocks != (size + blockDigits - 1) / blockDigits
+                        || trailer + 24 + blocks * 8L != fileSize) {
+                    throw corrupted("bad block index");
+                }
+                offsets = new long[blocks];
+                ByteBuffer index = readFully(trailer + 12, blocks * 8);
+                for (int i = 0; i < blocks; i++) {
+                    offsets[i] = index.getLong();
+                }
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Returns scale of notation of the stored digits.
+         */
+        public int getBase() {
+            return base;
+        }
+
+        /**
+         * Returns total number of stored digits.
+         */
+        public long size() {
+            return size;
+        }
+
+        /**
+         * Returns number of digits in every block except, possibly, the last one.
+         */
+        public int getBlockDigits() {
+            return blockDigits;
+        }
+
+        /**
+         * Returns number of blocks.
+         */
+        public int getBlockCount() {
+            return offsets.length;
+        }
+
+        /**
+         * Decodes single block.
+         *
+         * @param index - block index.
+         * @return digits of the block.
+         * @throws IOException if block cannot be read or is corrupted.
+         */
+        public byte[] readBlock(int index) throws IOException {
+            if (index < 0 || index >= offsets.length) throw new IndexOutOfBoundsException("Block " + index);
+            int digits = (int) Math.min(blockDigits, size - (long) index * blockDigits);
+            ByteBuffer head = readFully(offsets[index], BLOCK_HEADER_SIZE);
+            if (head.getInt() != digits) throw corrupted("block " + index + " size");
+            int codec = head.get() & 0xFF;
+            int length = head.getInt();
+            int expected = packedLength(digits, bits);
+            if (length < 0 || length > RunLengthCodec.maxEncodedLength(expected)) {
+                throw corrupted("block length " + length);
+            }
+            byte[] payload = readFully(offsets[index] + BLOCK_HEADER_SIZE, length).array();
+            byte[] packed = new byte[expected];
+            decodePayload(codec, payload, length, packed, expected);
+            byte[] block = new byte[digits];
+            if (!unpack(packed, bits, base, block, digits)) throw corrupted("digit out of range");
+            return block;
+        }
+
+        /**
+         * Reads range of digits, decoding only the blocks which contain it.
+         *
+         * @param from - index of the first digit.
+         * @param dst - destination array.
+         * @param off - index in destination.
+         * @param len - number of digits.
+         * @throws IOException if blocks cannot be read or are corrupted.
+         */
+        public void read(long from, byte[] dst, int off, int len) throws IOException {
+            if (from < 0 || len < 0 || from + len > size) {
+                throw new IndexOutOfBoundsException("Range " + from + "+" + len + " of " + size);
+            }
+            while (len > 0) {
+                int index = (int) (from / blockDigits);
+                int inBlock = (int) (from % blockDigits);
+                byte[] block = readBlock(index);
+                int n = Math.min(len, block.length - inBlock);
+                System.arraycopy(block, inBlock, dst, off, n);
+                from += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        private ByteBuffer readFully(long position, int length) throws IOException {
+            if (position < 0) throw corrupted("offset " + position);
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) throw new EOFException();
+            }
+            buffer.flip();
+            return buffer;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
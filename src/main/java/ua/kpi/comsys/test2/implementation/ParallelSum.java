@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sum of many numbers computed on the common fork-join pool.<p>
+ *
+ * Digit columns are split into segments, which are summed independently:
+ * every segment task adds the digits of all operands in its columns and
+ * resolves carries inside the segment, assuming no carry comes in. A carry
+ * coming into a segment can only raise its outgoing carry by one, and only
+ * when it exceeds a threshold known from the segment digits, so each
+ * segment is described by a small carry function. Carries into all
+ * segments are then found by a parallel prefix over compositions of these
+ * functions, and a second pass adds them to the segments.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+final class ParallelSum {
+
+    // Total number of digits below which the sum is computed sequentially
+    static final long SEQUENTIAL_THRESHOLD = 1 << 16;
+
+    // Keeps base^length above any carry, so incoming carry adds at most one
+    static final int MIN_SEGMENT = 64;
+
+    private static final long CAP = Long.MAX_VALUE / Radix.MAX_BASE;
+
+    private ParallelSum() {
+    }
+
+    /**
+     * Adds numbers stored in the same base.
+     *
+     * @param operands - numbers, which are only read.
+     * @param base - scale of notation of all operands.
+     * @return digits of the sum, without leading zeros.
+     */
+    static byte[] sum(List<NumberListImpl> operands, int base) {
+        return sum(operands, base, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    // Package-private: segments are sized for the given parallelism
+    static byte[] sum(List<NumberListImpl> operands, int base, int parallelism) {
+        int width = 0;
+        long total = 0;
+        for (NumberListImpl op : operands) {
+            width = Math.max(width, op.size());
+            total += op.size();
+        }
+        if (total < SEQUENTIAL_THRESHOLD || parallelism < 2 || width < 2 * MIN_SEGMENT) {
+            List<byte[]> terms = new ArrayList<>(operands.size());
+            for (NumberListImpl op : operands) terms.add(op.significantDigits());
+            return DigitArithmetic.sum(terms, base);
+        }
+
+        int segment = Math.max(MIN_SEGMENT, (width + 4 * parallelism - 1) / (4 * parallelism));
+        int segments = (width + segment - 1) / segment;
+        byte[] out = new byte[width];
+        Carry[] carries = new Carry[segments];
+        ForkJoinPool.commonPool().invoke(new Segments(operands, base, out, segment, carries, null, 0, segments));
+
+        // The last segment may be too short to take any incoming carry with
+        // an overflow of at most one, so its carry is resolved here
+        long top = carries[segments - 1].low;
+
+        // carries[s] becomes carry out of segments 0..s as function of carry into segment 0
+        Arrays.parallelPrefix(carries, (lower, upper) -> upper.after(lower));
+        ForkJoinPool.commonPool().invoke(new Segments(operands, base, out, segment, null, carries, 0, segments - 1));
+
+        long carry = top;
+        if (segments > 1) carry += addCarry(out, base, segment, segments - 1, carries[segments - 2].apply(0));
+        byte[] high = new byte[DigitArithmetic.digitCount(carry, base)];
+        int pos = high.length;
+        while (carry > 0) {
+            high[--pos] = (byte) (carry % base);
+            carry /= base;
+        }
+        if (pos < high.length) {
+            byte[] result = new byte[high.length - pos + width];
+            System.arraycopy(high, pos, result, 0, high.length - pos);
+            System.arraycopy(out, 0, result, high.length - pos, width);
+            return result;
+        }
+        int lead = 0;
+        while (lead < width - 1 && out[lead] == 0) lead++;
+        return lead == 0 ? out : Arrays.copyOfRange(out, lead, width);
+    }
+
+    /**
+     * Outgoing carry of a segment, or of several adjacent segments,
+     * as function of the incoming carry: <tt>c &gt; threshold ? high : low</tt>.
+     */
+    static final class Carry {
+        final long low;
+        final long high;
+        final long threshold;
+
+        Carry(long low, long high, long threshold) {
+            this.low = low;
+            this.high = high;
+            this.threshold = threshold;
+        }
+
+        long apply(long carry) {
+            return carry > threshold ? high : low;
+        }
+
+        // Composition with the carry function of less significant segments
+        Carry after(Carry lower) {
+            return new Carry(apply(lower.low), apply(lower.high), lower.threshold);
+        }
+    }
+
+    // First pass sums segments and fills carries, second pass adds incoming carries
+    private static final class Segments extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<NumberListImpl> operands;
+        private final int base;
+        private final byte[] out;
+        private final int segment;
+        private final Carry[] carries;
+        private final Carry[] prefix;
+        private final int lo;
+        private final int hi;
+
+        Segments(List<NumberListImpl> operands, int base, byte[] out, int segment,
+                 Carry[] carries, Carry[] prefix, int lo, int hi) {
+            this.operands = operands;
+            this.base = base;
+            this.out = out;
+            this.segment = segment;
+            this.carries = carries;
+            this.prefix = prefix;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new Segments(operands, base, out, segment, carries, prefix, lo, mid),
+                        new Segments(operands, base, out, segment, carries, prefix, mid, hi));
+            } else if (prefix == null) {
+                sumSegment(lo);
+            } else if (lo > 0) {
+                addCarry(out, base, segment, lo, prefix[lo - 1].apply(0));
+            }
+        }
+
+        private void sumSegment(int s) {
+            int from = s * segment;
+            int to = Math.min(out.length, from + segment);
+            long[] columns = new long[to - from];
+            for (NumberListImpl op : operands) {
+                op.addColumns(columns, from, to);
+            }
+
+            long carry = 0;
+            for (int i = 0; i < columns.length; i++) {
+                long v = columns[i] + carry;
+                out[out.length - 1 - from - i] = (byte) (v % base);
+                carry = v / base;
+            }
+
+            // Incoming carry overflows the segment when it exceeds
+            // base^length - 1 - digits, which is small only if the top
+            // digits are all base - 1
+            long threshold = 0;
+            for (int i = out.length - to; i < out.length - from; i++) {
+                threshold = threshold * base + (base - 1 - out[i]);
+                if (threshold > CAP) {
+                    threshold = Long.MAX_VALUE;
+                    break;
+                }
+            }
+            carries[s] = new Carry(carry, carry + 1, threshold);
+        }
+
+    }
+
+    // Adds incoming carry to the digits of segment s, returns outgoing carry
+    private static long addCarry(byte[] out, int base, int segment, int s, long carry) {
+        int from = s * segment;
+        int to = Math.min(out.length, from + segment);
+        for (int i = out.length - 1 - from; carry > 0 && i >= out.length - to; i--) {
+            long v = out[i] + carry;
+            out[i] = (byte) (v % base);
+            carry = v / base;
+        }
+        return carry;
+    }
+}
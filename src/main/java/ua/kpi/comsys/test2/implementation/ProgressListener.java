@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+/**
+ * Callback for long running <tt>NumberListImpl</tt> operations, such as
+ * asynchronous loading and saving.<p>
+ *
+ * Listener is invoked from the thread which completed the current chunk
+ * of work, so it has to be fast and must not block.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    /**
+     * Listener which ignores all notifications.
+     */
+    ProgressListener NONE = (done, total) -> { };
+
+    /**
+     * Reports progress of the operation.
+     *
+     * @param done - amount of work done, in bytes.
+     * @param total - total amount of work, in bytes.
+     */
+    void progress(long done, long total);
+}
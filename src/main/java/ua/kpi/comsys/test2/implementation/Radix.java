@@ -0,0 +1,422 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scale of notation conversions for digit arrays used by
+ * <tt>NumberListImpl</tt>.<p>
+ *
+ * Digit arrays hold one digit per element, most significant digit first.
+ * Conversions between power-of-two bases regroup bits in a single pass.
+ * Other conversions split the number into halves, convert them, and join
+ * them as <tt>high * from^length + low</tt> in the target base, with
+ * Karatsuba products and cached squares <tt>from^(2^k)</tt>.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+final class Radix {
+
+    static final int MIN_BASE = 2;
+    static final int MAX_BASE = 16;
+
+    private static final Table[] TABLES = new Table[MAX_BASE + 1];
+
+    static {
+        for (int base = MIN_BASE; base <= MAX_BASE; base++) {
+            TABLES[base] = new Table(base);
+        }
+    }
+
+    /**
+     * Precomputed powers of a single base.<p>
+     *
+     * <tt>digitsPerWord</tt> is the largest k such that base^k fits
+     * into a positive <tt>int</tt>, so that a word remainder multiplied by
+     * another word radix never overflows a <tt>long</tt>.
+     * <tt>longDigits</tt> is the largest k such that base^k fits into
+     * a positive <tt>long</tt>, so any number of k digits does too.
+     */
+    static final class Table {
+        final int base;
+        final int digitsPerWord;
+        final int wordRadix;
+        final int longDigits;
+        // base^i for i from 0 to longDigits
+        final long[] longPowers;
+        // log2(base) for power-of-two bases, otherwise 0
+        final int bitsPerDigit;
+        final double log2;
+
+        private Table(int base) {
+            this.base = base;
+            int k = 0;
+            long p = 1;
+            while (p * base <= Integer.MAX_VALUE) {
+                p *= base;
+                k++;
+            }
+            this.digitsPerWord = k;
+            this.wordRadix = (int) p;
+            int n = 0;
+            for (long q = 1; q <= Long.MAX_VALUE / base; q *= base) n++;
+            this.longDigits = n;
+            this.longPowers = new long[n + 1];
+            longPowers[0] = 1;
+            for (int i = 1; i <= n; i++) {
+                longPowers[i] = longPowers[i - 1] * base;
+            }
+            this.bitsPerDigit = Integer.bitCount(base) == 1 ? Integer.numberOfTrailingZeros(base) : 0;
+            this.log2 = Math.log(base) / Math.log(2);
+        }
+    }
+
+    private Radix() {
+    }
+
+    /**
+     * Returns cached radix table for the specified base.
+     *
+     * @param base - scale of notation.
+     * @return radix table.
+     * @throws IllegalArgumentException if base is not supported.
+     */
+    static Table table(int base) {
+        checkBase(base);
+        return TABLES[base];
+    }
+
+    static void checkBase(int base) {
+        if (base < MIN_BASE || base > MAX_BASE) {
+            throw new IllegalArgumentException("Unsupported scale of notation: " + base);
+        }
+    }
+
+    /**
+     * Converts digits from one scale of notation to another.<p>
+     *
+     * The result never has leading zeros; zero and empty input are both
+     * represented by a single zero digit.
+     *
+     * @param digits - digits in source base, most significant first.
+     * @param from - source base.
+     * @param to - target base.
+     * @return digits in target base.
+     * @throws NumberFormatException if some digit is out of range for the source base.
+     */
+    static byte[] convert(byte[] digits, int from, int to) {
+        int lead = 0;
+        while (lead < digits.length && digits[lead] == 0) lead++;
+        Converter converter = new Converter(from, to, lead, digits.length - lead);
+        converter.feed(digits, lead, digits.length - lead);
+        return converter.finish();
+    }
+
+    static void checkDigits(byte[] digits, int base) {
+        for (int i = 0; i < digits.length; i++) {
+            if (digits[i] < 0 || digits[i] >= base) {
+                throw new NumberFormatException("Digit " + digits[i] + " at position " + i
+                        + " is out of range for base " + base);
+            }
+        }
+    }
+
+    /**
+     * Conversion of a number whose digits are fed in ranges, most
+     * significant first, so that they are read straight from any storage.<p>
+     *
+     * Between power-of-two bases bits are regrouped as they come. Otherwise
+     * digits are converted in leaves of <tt>LEAF</tt> digits, counted from
+     * the least significant end, by multiplying and adding words of the
+     * target base. Two adjacent parts of the same length are joined as
+     * <tt>high * from^length + low</tt> as soon as both are done, as in
+     * a binary counter, so that products are balanced and the conversion
+     * takes about a Karatsuba product for every level of halving.
+     */
+    static final class Converter {
+
+        // Length of a leaf, 2^LEAF_BITS source digits
+        static final int LEAF_BITS = 9;
+        static final int LEAF = 1 << LEAF_BITS;
+
+        private final Table src;
+        private final Table dst;
+        private final int lead;
+        private final int digits;
+        private int fed;
+
+        // Same base and power-of-two bases: digits of the result
+        private byte[] out;
+        private int pos;
+        private int acc;
+        private int accBits;
+        private int want;
+
+        // Other bases: the leaf being converted, and done parts with the
+        // log2 of their length in leaves, or -1 for the short first leaf
+        private Squares squares;
+        private int[] leaf;
+        private int leafWords;
+        private int leafLeft;
+        private long chunk;
+        private int chunkDigits;
+        private final int[][] parts = new int[Integer.SIZE + 1][];
+        private final int[] levels = new int[Integer.SIZE + 1];
+        private int depth;
+
+        /**
+         * Creates conversion of the number of <tt>digits</tt> digits, the
+         * first of which is not zero.
+         *
+         * @param from - source base.
+         * @param to - target base.
+         * @param lead - index of the first digit, for error messages.
+         * @param digits - number of digits to be fed.
+         * @throws IllegalArgumentException if base is not supported.
+         */
+        Converter(int from, int to, int lead, int digits) {
+            this.src = table(from);
+            this.dst = table(to);
+            this.lead = lead;
+            this.digits = digits;
+            if (from == to) {
+                out = new byte[digits];
+            } else if (src.bitsPerDigit != 0 && dst.bitsPerDigit != 0) {
+                long bits = (long) digits * src.bitsPerDigit;
+                out = new byte[(int) ((bits + dst.bitsPerDigit - 1) / dst.bitsPerDigit)];
+                want = (int) (bits - (long) (out.length - 1) * dst.bitsPerDigit);
+            } else {
+                squares = new Squares(from, to);
+                leaf = new int[estimateDigits(LEAF, src, dst) / dst.digitsPerWord + 2];
+                leafLeft = digits % LEAF == 0 ? LEAF : digits % LEAF;
+            }
+        }
+
+        /**
+         * Converts the next digits of the number.
+         *
+         * @throws NumberFormatException if some digit is out of range for
+         *      the source base.
+         */
+        void feed(byte[] digits, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                int d = digits[i];
+                if (d < 0 || d >= src.base) {
+                    throw new NumberFormatException("Digit " + d + " at position " + (lead + fed + i - off)
+                            + " is out of range for base " + src.base);
+                }
+            }
+            if (squares != null) {
+                feedWords(digits, off, len);
+            } else if (src == dst) {
+                System.arraycopy(digits, off, out, pos, len);
+                pos += len;
+            } else {
+                feedBits(digits, off, len);
+            }
+            fed += len;
+        }
+
+        private void feedBits(byte[] digits, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                acc = acc << src.bitsPerDigit | digits[i];
+                accBits += src.bitsPerDigit;
+                while (accBits >= want) {
+                    accBits -= want;
+                    out[pos++] = (byte) (acc >>> accBits);
+                    acc &= (1 << accBits) - 1;
+                    want = dst.bitsPerDigit;
+                }
+            }
+        }
+
+        private void feedWords(byte[] digits, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                chunk = chunk * src.base + digits[i];
+                chunkDigits++;
+                if (--leafLeft == 0 || chunkDigits == src.digitsPerWord) {
+                    multiplyAdd(src.longPowers[chunkDigits], chunk);
+                    chunk = 0;
+                    chunkDigits = 0;
+                    if (leafLeft == 0) {
+                        // The first leaf is the only short one
+                        push(Arrays.copyOf(leaf, leafWords), depth == 0 && this.digits % LEAF != 0 ? -1 : 0);
+                        leafWords = 0;
+                        leafLeft = LEAF;
+                    }
+                }
+            }
+        }
+
+        // leaf = leaf * factor + value, with factor not above a word radix
+        private void multiplyAdd(long factor, long value) {
+            long radix = dst.wordRadix;
+            long carry = value;
+            for (int i = 0; i < leafWords; i++) {
+                long v = leaf[i] * factor + carry;
+                leaf[i] = (int) (v % radix);
+                carry = v / radix;
+            }
+            while (carry > 0) {
+                leaf[leafWords++] = (int) (carry % radix);
+                carry /= radix;
+            }
+        }
+
+        private void push(int[] part, int level) {
+            while (depth > 0 && levels[depth - 1] == level) {
+                part = join(parts[--depth], part, level++);
+            }
+            parts[depth] = part;
+            levels[depth++] = level;
+        }
+
+        // high * from^(LEAF * 2^level) + low
+        private int[] join(int[] high, int[] low, int level) {
+            int[] product = DigitArithmetic.multiply(high, squares.get(LEAF_BITS + level), dst.wordRadix);
+            return DigitArithmetic.trim(DigitArithmetic.add(product, low, dst.wordRadix));
+        }
+
+        /**
+         * Returns the converted number, without leading zeros; zero is
+         * a single zero digit.
+         *
+         * @throws IllegalStateException if not all digits were fed.
+         */
+        byte[] finish() {
+            if (fed != digits) {
+                throw new IllegalStateException(fed + " of " + digits + " digits were converted");
+            }
+            if (digits == 0) return new byte[] {0};
+            if (squares == null) return stripLeadingZeros(out);
+            int[] words = parts[0];
+            for (int i = 1; i < depth; i++) words = join(words, parts[i], levels[i]);
+            return DigitArithmetic.fromWords(words, dst);
+        }
+    }
+
+    // Squares of the source base are cached up to this many words, longer
+    // ones are kept only by the conversion which needs them
+    static final int CACHED_SQUARE_WORDS = 1 << 12;
+
+    // Cached squares by from * (MAX_BASE + 1) + to
+    private static final Map<Integer, int[][]> SQUARES = new HashMap<>();
+
+    /**
+     * Squares <tt>from^(2^k)</tt> of a source base as words of a target
+     * base, least significant first. Short ones are shared through a cache.
+     * Instances are not thread-safe.
+     */
+    static final class Squares {
+        private final int from;
+        private final Table target;
+        private final List<int[]> words = new ArrayList<>();
+
+        Squares(int from, int to) {
+            this.from = from;
+            this.target = table(to);
+            synchronized (SQUARES) {
+                int[][] cached = SQUARES.get(key(from, to));
+                if (cached != null) words.addAll(Arrays.asList(cached));
+            }
+        }
+
+        /**
+         * Returns words of <tt>from^(2^k)</tt> in the target base.
+         */
+        int[] get(int k) {
+            int cached = words.size();
+            while (words.size() <= k) {
+                // The base itself is below any word radix
+                int[] last = words.isEmpty() ? null : words.get(words.size() - 1);
+                words.add(last == null
+                        ? new int[] {from}
+                        : DigitArithmetic.trim(DigitArithmetic.multiply(last, last, target.wordRadix)));
+            }
+            if (words.size() > cached && words.get(cached).length <= CACHED_SQUARE_WORDS) {
+                int n = cached;
+                while (n < words.size() && words.get(n).length <= CACHED_SQUARE_WORDS) n++;
+                synchronized (SQUARES) {
+                    int[][] old = SQUARES.get(key(from, target.base));
+                    if (old == null || old.length < n) {
+                        SQUARES.put(key(from, target.base), words.subList(0, n).toArray(new int[0][]));
+                    }
+                }
+            }
+            return words.get(k);
+        }
+
+        private static int key(int from, int to) {
+            return from * (MAX_BASE + 1) + to;
+        }
+    }
+
+    /**
+     * Returns upper bound of the number of digits needed to represent
+     * a number of <tt>digits</tt> source digits in the target base.
+     */
+    static int estimateDigits(int digits, Table src, Table dst) {
+        return (int) Math.ceil(digits * src.log2 / dst.log2) + 1;
+    }
+
+    private static byte[] stripLeadingZeros(byte[] digits) {
+        int lead = 0;
+        while (lead < digits.length - 1 && digits[lead] == 0) lead++;
+        if (lead == 0) return digits;
+        byte[] out = new byte[digits.length - lead];
+        System.arraycopy(digits, lead, out, 0, out.length);
+        return out;
+    }
+
+    /**
+     * Character rendered in place of a value which is not a digit of any
+     * supported base, so that it stays visible in the text.
+     */
+    static final char INVALID_DIGIT = '?';
+
+    /**
+     * Returns character for the digit in upper case, e.g. <tt>'A'</tt> for 10,
+     * or {@link #INVALID_DIGIT} for values outside of 0..15.
+     */
+    static char toChar(int digit) {
+        if (digit < 0 || digit >= MAX_BASE) return INVALID_DIGIT;
+        return Character.toUpperCase(Character.forDigit(digit, MAX_BASE));
+    }
+
+    // Latin-1 characters of digits, indexed by unsigned byte value.
+    // Values which are not digits map to INVALID_DIGIT, as in toChar().
+    private static final byte[] LATIN1 = new byte[256];
+
+    static {
+        for (int d = 0; d < LATIN1.length; d++) {
+            LATIN1[d] = (byte) toChar((byte) d);
+        }
+    }
+
+    /**
+     * Returns Latin-1 character code for the digit, see {@link #toChar(int)}.
+     */
+    static byte toLatin1(byte digit) {
+        return LATIN1[digit & 0xFF];
+    }
+
+    /**
+     * Replaces digits of the array range with their Latin-1 character codes.
+     */
+    static void toLatin1(byte[] digits, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            digits[i] = LATIN1[digits[i] & 0xFF];
+        }
+    }
+}
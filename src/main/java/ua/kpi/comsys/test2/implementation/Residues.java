@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Modular arithmetic on digits in their stored scale of notation.<p>
+ *
+ * Residues are computed by Horner's rule over blocks of digits: as many
+ * digits as keep <tt>residue * base^k</tt> within a <tt>long</tt> are
+ * folded into one word and reduced with a single division. Moduli too
+ * large for that are reduced digit by digit with 128-bit products. Long
+ * numbers are split into segments, whose residues are computed in parallel
+ * and joined as <tt>left * base^length(right) + right</tt>.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+final class Residues {
+
+    // Number of digits from which reduction runs in parallel
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    // Chunks per parallel task
+    static final int PARALLEL_CHUNKS = 64;
+
+    private Residues() {
+    }
+
+    static void checkModulus(long m) {
+        if (m <= 0) throw new ArithmeticException("Modulus not positive: " + m);
+    }
+
+    /**
+     * Returns number of digits folded into one word for the modulus,
+     * or 0 if the modulus needs 128-bit products.
+     */
+    static int blockDigits(long m, int base) {
+        int k = 0;
+        long limit = Long.MAX_VALUE / m;
+        for (long p = base; p <= limit; p *= base) {
+            k++;
+            if (p > Long.MAX_VALUE / base) break;
+        }
+        return k;
+    }
+
+    /**
+     * Continues Horner's rule: returns residue of the number whose digits
+     * are those of <tt>r</tt> followed by <tt>a[from..to)</tt>.
+     *
+     * @param k - result of {@link #blockDigits(long, int)}.
+     * @param bk - base^k.
+     */
+    static long reduce(byte[] a, int from, int to, long r, long m, int base, int k, long bk) {
+        int i = from;
+        if (k == 0) {
+            for (; i < to; i++) {
+                r = addMod(mulMod(r, base, m), a[i], m);
+            }
+            return r;
+        }
+        for (; i + k <= to; i += k) {
+            long w = 0;
+            for (int j = i; j < i + k; j++) {
+                w = w * base + a[j];
+            }
+            r = (r * bk + w) % m;
+        }
+        if (i < to) {
+            long w = 0;
+            long p = 1;
+            for (; i < to; i++) {
+                w = w * base + a[i];
+                p *= base;
+            }
+            r = (r * p + w) % m;
+        }
+        return r;
+    }
+
+    /**
+     * Returns residue of the digits of all segments, in parallel.
+     */
+    static long reduce(DigitSearch.Segments s, long m, int base) {
+        return ForkJoinPool.commonPool().invoke(new ReduceTask(s, m, base, 0, s.count))[0];
+    }
+
+    // Returns {residue, number of digits} of chunks [from, to)
+    private static final class ReduceTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final DigitSearch.Segments segments;
+        private final long m;
+        private final int base;
+        private final int from;
+        private final int to;
+
+        ReduceTask(DigitSearch.Segments segments, long m, int base, int from, int to) {
+            this.segments = segments;
+            this.m = m;
+            this.base = base;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= PARALLEL_CHUNKS) {
+                int k = blockDigits(m, base);
+                long bk = pow(base, k);
+                long r = 0;
+                for (int c = from; c < to; c++) {
+                    r = reduce(segments.arrays[c], segments.starts[c], segments.ends[c], r, m, base, k, bk);
+                }
+                return new long[] {r, segments.offsets[to] - segments.offsets[from]};
+            }
+            int mid = (from + to) >>> 1;
+            ReduceTask right = new ReduceTask(segments, m, base, mid, to);
+            right.fork();
+            long[] a = new ReduceTask(segments, m, base, from, mid).compute();
+            long[] b = right.join();
+            long r = addMod(mulMod(a[0], powMod(base % m, b[1], m), m), b[0], m);
+            return new long[] {r, a[1] + b[1]};
+        }
+    }
+
+    private static long pow(int base, int k) {
+        long p = 1;
+        for (int i = 0; i < k; i++) p *= base;
+        return p;
+    }
+
+    /**
+     * Returns a^e mod m for 0 &lt;= a &lt; m and e &gt;= 0.
+     */
+    static long powMod(long a, long e, long m) {
+        long result = 1 % m;
+        while (e > 0) {
+            if ((e & 1) != 0) result = mulMod(result, a, m);
+            a = mulMod(a, a, m);
+            e >>>= 1;
+        }
+        return result;
+    }
+
+    static long addMod(long a, long b, long m) {
+        long s = a + b;
+        // Both are below m < 2^63, so the sum fits into unsigned long
+        return Long.compareUnsigned(s, m) >= 0 ? s - m : s;
+    }
+
+    /**
+     * Returns a * b mod m for 0 &lt;= a, b &lt; m.
+     */
+    static long mulMod(long a, long b, long m) {
+        long hi = Math.multiplyHigh(a, b);
+        long lo = a * b;
+        if (hi == 0 && lo >= 0) return lo % m;
+        // hi < m, so the residue is built from hi by shifting in bits of lo
+        long r = hi % m;
+        for (int bit = 63; bit >= 0; bit--) {
+            r = addMod(r, r, m);
+            if ((lo >>> bit & 1) != 0) r = addMod(r, 1, m);
+        }
+        return r;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2014, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+/**
+ * Byte oriented run-length codec (PackBits layout) for blocks of
+ * <tt>PackedNumberFormat</tt>.<p>
+ *
+ * Each packet starts with a control byte <tt>n</tt>: for 0..127 it is
+ * followed by <tt>n + 1</tt> literal bytes, for -127..-1 it is followed by
+ * a single byte repeated <tt>1 - n</tt> times.
+ *
+ * @author Alexander Podrubailo
+ *
+ */
+final class RunLengthCodec {
+
+    private static final int MAX_PACKET = 128;
+    private static final int MIN_RUN = 3;
+
+    private RunLengthCodec() {
+    }
+
+    /**
+     * Returns maximal size of encoded data for the input of specified length.
+     */
+    static int maxEncodedLength(int length) {
+        return length + (length + MAX_PACKET - 1) / MAX_PACKET;
+    }
+
+    /**
+     * Encodes <tt>len</tt> bytes of <tt>src</tt> into <tt>dst</tt>.
+     *
+     * @return number of bytes written into <tt>dst</tt>.
+     */
+    static int encode(byte[] src, int len, byte[] dst) {
+        int in = 0;
+        int out = 0;
+        while (in < len) {
+            int run = runLength(src, in, len);
+            if (run >= MIN_RUN) {
+                dst[out++] = (byte) (1 - run);
+                dst[out++] = src[in];
+                in += run;
+                continue;
+            }
+            int start = in;
+            while (in < len && in - start < MAX_PACKET && runLength(src, in, len) < MIN_RUN) {
+                in++;
+            }
+            dst[out++] = (byte) (in - start - 1);
+            System.arraycopy(src, start, dst, out, in - start);
+            out += in - start;
+        }
+        return out;
+    }
+
+    private static int runLength(byte[] src, int from, int len) {
+        int run = 1;
+        while (from + run < len && run < MAX_PACKET && src[from + run] == src[from]) run++;
+        return run;
+    }
+
+    /**
+     * Decodes <tt>srcLen</tt> bytes of <tt>src</tt> into exactly
+     * <tt>dstLen</tt> bytes of <tt>dst</tt>.
+     *
+     * @return <tt>false</tt> if the input is corrupted.
+     */
+    static boolean decode(byte[] src, int srcLen, byte[] dst, int dstLen) {
+        int in = 0;
+        int out = 0;
+        while (in < srcLen) {
+            int n = src[in++];
+            if (n >= 0) {
+                if (in + n + 1 > srcLen || out + n + 1 > dstLen) return false;
+                System.arraycopy(src, in, dst, out, n + 1);
+                in += n + 1;
+                out += n + 1;
+            } else if (n != -128) {
+                int run = 1 - n;
+                if (in >= srcLen || out + run > dstLen) return false;
+                byte b = src[in++];
+                for (int i = 0; i < run; i++) dst[out++] = b;
+            }
+        }
+        return out == dstLen;
+    }
+}
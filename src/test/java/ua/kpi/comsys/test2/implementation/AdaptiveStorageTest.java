@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveStorageTest {
+
+    private static NumberListImpl appended(int n, Random random) {
+        NumberListImpl list = new NumberListImpl();
+        for (int i = 0; i < n; i++) list.add((byte) random.nextInt(10));
+        return list;
+    }
+
+    @Test
+    public void testRandomAccessPacks() {
+        Random random = new Random(47);
+        NumberListImpl list = appended(200_000, random);
+        assertEquals("chunked", list.backend());
+        List<Byte> expected = new ArrayList<>(list);
+
+        // Sequential reads keep the chunks
+        for (int i = 0; i < list.size(); i++) assertEquals(expected.get(i), list.get(i));
+        assertEquals("chunked", list.backend());
+
+        for (int i = 0; i < 1000; i++) {
+            int index = random.nextInt(list.size());
+            assertEquals(expected.get(index), list.get(index));
+        }
+        assertEquals("packed", list.backend());
+        assertEquals(list.countStorageBytes(), list.estimatedFootprintBytes() - NumberListImpl.LIST_BYTES);
+
+        // Appends go to new chunks after the packed one
+        list.shiftLeft();
+        expected.add((byte) 0);
+        assertEquals(expected, list);
+    }
+
+    @Test
+    public void testRemoveInsideSplits() {
+        Random random = new Random(470);
+        NumberListImpl list = appended(100_000, random);
+        for (int i = 0; i < 1000; i++) list.get(random.nextInt(list.size()));
+        assertEquals("packed", list.backend());
+        List<Byte> expected = new ArrayList<>(list);
+
+        // Removal at the ends of the packed chunk keeps it
+        list.remove(0);
+        list.shiftRight();
+        expected.remove(0);
+        expected.remove(expected.size() - 1);
+        assertEquals("packed", list.backend());
+
+        list.remove(50_000);
+        expected.remove(50_000);
+        assertEquals("chunked", list.backend());
+        assertEquals(expected, list);
+        assertEquals(list.countStorageBytes(), list.estimatedFootprintBytes() - NumberListImpl.LIST_BYTES);
+    }
+
+    @Test
+    public void testSnapshotOfPackedList() {
+        Random random = new Random(4700);
+        NumberListImpl list = appended(50_000, random);
+        NumberListImpl early = list.snapshot();
+        for (int i = 0; i < 1000; i++) list.get(random.nextInt(list.size()));
+        assertEquals("packed", list.backend());
+        assertEquals(early, list);
+
+        NumberListImpl view = list.snapshot();
+        List<Byte> frozen = new ArrayList<>(view);
+        list.set(25_000, (byte) ((list.get(25_000) + 1) % 10));
+        list.swap(1, 49_000);
+        assertEquals("chunked", list.backend());
+        assertEquals(frozen, view);
+        assertEquals(early, view);
+        assertEquals(frozen.get(1), list.get(49_000));
+    }
+
+    @Test
+    public void testMixedWorkload() {
+        Random random = new Random(47000);
+        NumberListImpl list = appended(30_000, random);
+        List<Byte> expected = new ArrayList<>(list);
+        NumberListImpl view = null;
+        List<Byte> frozen = null;
+        for (int round = 0; round < 20_000; round++) {
+            int op = random.nextInt(100);
+            if (op < 60) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.get(index), list.get(index));
+            } else if (op < 75) {
+                int index = random.nextInt(expected.size());
+                byte digit = (byte) random.nextInt(10);
+                assertEquals(expected.set(index, digit), list.set(index, digit));
+            } else if (op < 85) {
+                int i = random.nextInt(expected.size());
+                int j = random.nextInt(expected.size());
+                list.swap(i, j);
+                expected.set(i, expected.set(j, expected.get(i)));
+            } else if (op < 90) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), list.remove(index));
+            } else if (op < 98) {
+                byte digit = (byte) random.nextInt(10);
+                list.add(digit);
+                expected.add(digit);
+            } else {
+                view = list.snapshot();
+                frozen = new ArrayList<>(expected);
+            }
+        }
+        assertEquals(expected, list);
+        if (view != null) assertEquals(frozen, view);
+        assertEquals(list.countStorageBytes(), list.estimatedFootprintBytes() - NumberListImpl.LIST_BYTES);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncFileListTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testLoadSameAsSync() {
+        for (String name : new String[] {FileListTest.FILE_1, FileListTest.FILE_14,
+                FileListTest.FILE_227, FileListTest.FILE_BIG, FileListTest.FILE_EMPTY}) {
+            NumberListImpl expected = new NumberListImpl(new File(name));
+            NumberListImpl actual = NumberListImpl.loadAsync(Path.of(name)).join();
+            assertEquals("Incorrect loading of " + name, expected, actual);
+        }
+    }
+
+    @Test
+    public void testLoadMissingFile() {
+        try {
+            NumberListImpl.loadAsync(tmp.getRoot().toPath().resolve("missing.txt")).join();
+            fail("Missing file has to be reported");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof NoSuchFileException);
+        }
+    }
+
+    @Test
+    public void testLoadInvalidContent() throws IOException {
+        Path file = write("  123x45\n");
+        try {
+            NumberListImpl.loadAsync(file).join();
+            fail("Invalid character has to be reported");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof NumberFormatException);
+            assertTrue(e.getCause().getMessage().contains("offset 5"));
+        }
+    }
+
+    @Test
+    public void testLoadFirstLineOnly() throws IOException {
+        Path file = write(" 42 \r\nnot a number");
+        assertEquals(new NumberListImpl("42"), NumberListImpl.loadAsync(file).join());
+    }
+
+    @Test
+    public void testSaveAndLoadLargeNumber() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 3 * AsyncNumberFile.CHUNK_SIZE + 17; i++) {
+            sb.append((char) ('0' + i % 10));
+        }
+        NumberListImpl list = new NumberListImpl(sb.toString());
+        Path file = tmp.newFile().toPath();
+        AtomicLong written = new AtomicLong();
+        AtomicLong read = new AtomicLong();
+
+        list.saveAsync(file, (done, total) -> written.set(done)).join();
+        assertEquals(sb.toString(), new String(Files.readAllBytes(file), StandardCharsets.US_ASCII));
+        assertEquals(sb.length(), written.get());
+
+        NumberListImpl loaded = NumberListImpl.loadAsync(file, (done, total) -> read.set(total)).join();
+        assertEquals(list, loaded);
+        assertEquals(sb.length(), read.get());
+    }
+
+    @Test
+    public void testSaveConvertsToDecimal() throws IOException {
+        Path file = tmp.newFile().toPath();
+        new NumberListImpl("255").changeScale(16).saveAsync(file).join();
+        assertEquals("255", new String(Files.readAllBytes(file), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testSaveCapturesNumber() throws IOException {
+        String decimal = ScaleOfNotationChangeTest.DECIMAL;
+        NumberListImpl list = new NumberListImpl(decimal).changeScale(3);
+        Path file = tmp.newFile().toPath();
+        CompletableFuture<Void> saved = list.saveAsync(file);
+        // Conversion may still run while the list changes
+        list.clear();
+        list.add((byte) 1);
+        saved.join();
+        assertEquals(decimal, new String(Files.readAllBytes(file), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testManyConcurrentOperations() throws IOException {
+        List<CompletableFuture<NumberListImpl>> loads = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Path file = tmp.newFile().toPath();
+            NumberListImpl list = new NumberListImpl(String.valueOf(i));
+            loads.add(list.saveAsync(file).thenCompose(v -> NumberListImpl.loadAsync(file)));
+        }
+        for (int i = 0; i < loads.size(); i++) {
+            assertEquals(String.valueOf(i), loads.get(i).join().toDecimalString());
+        }
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        byte[] digits = new byte[64 * AsyncNumberFile.CHUNK_SIZE];
+        Arrays.fill(digits, (byte) '7');
+        Path file = tmp.newFile().toPath();
+        Files.write(file, digits);
+
+        // The first progress callback cancels the load
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<CompletableFuture<NumberListImpl>> loading = new CompletableFuture<>();
+        CompletableFuture<NumberListImpl> future = NumberListImpl.loadAsync(file, (done, total) -> {
+            if (calls.incrementAndGet() == 1) loading.join().cancel(true);
+        });
+        loading.complete(future);
+        try {
+            future.join();
+            fail("Cancelled load has to be reported");
+        } catch (CancellationException e) {
+            // Expected
+        }
+        // A read still running would report progress well within this time
+        Thread.sleep(200);
+        assertEquals(1, calls.get());
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = tmp.newFile().toPath();
+        Files.write(file, content.getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BatchProcessorTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testProcessesTree() throws Exception {
+        Path input = tmp.newFolder("in").toPath();
+        Path output = tmp.getRoot().toPath().resolve("out");
+        Random random = new Random(35);
+        BigInteger[] values = new BigInteger[40];
+        long bytes = 0;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new BigInteger(1 + random.nextInt(300), random);
+            bytes += write(input.resolve("d" + i % 3).resolve(i + ".txt"), values[i].toString());
+        }
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        AtomicLong progress = new AtomicLong();
+        BatchProcessor processor = new BatchProcessor(list -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                return list.additionalOperation(new NumberListImpl("1"));
+            } finally {
+                running.decrementAndGet();
+            }
+        }, 1, false);
+        BatchProcessor.Report report = processor.process(input, output, (done, total) -> progress.set(done));
+
+        assertEquals(values.length, report.getFiles());
+        assertEquals(bytes, report.getBytes());
+        assertEquals(bytes, progress.get());
+        assertTrue(report.getFailed().isEmpty());
+        // One byte limit lets only one file in flight
+        assertEquals(1, peak.get());
+        for (int i = 0; i < values.length; i++) {
+            Path result = output.resolve("d" + i % 3).resolve(i + ".txt");
+            assertEquals(values[i].add(BigInteger.ONE).toString(),
+                    new String(Files.readAllBytes(result), StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    public void testPackedKeepsScale() throws Exception {
+        Path input = tmp.newFolder("packed-in").toPath();
+        Path output = tmp.newFolder("packed-out").toPath();
+        write(input.resolve("n.txt"), "123456789");
+
+        BatchProcessor.Report report = new BatchProcessor(NumberListImpl::changeScale,
+                BatchProcessor.DEFAULT_MAX_IN_FLIGHT_BYTES, true).process(input, output);
+
+        assertEquals(1, report.getFiles());
+        NumberListImpl result = NumberListImpl.loadPacked(output.resolve("n.txt").toFile());
+        assertEquals(3, result.getBase());
+        assertEquals("123456789", result.toDecimalString());
+    }
+
+    @Test
+    public void testReportsFailures() throws Exception {
+        Path input = tmp.newFolder("failing").toPath();
+        write(input.resolve("a.txt"), "12");
+        write(input.resolve("b.txt"), "34");
+
+        BatchProcessor.Report report = new BatchProcessor(list -> {
+            if (list.toString().equals("34")) throw new IllegalStateException();
+            return list;
+        }).process(input, tmp.newFolder("failing-out").toPath());
+
+        assertEquals(2, report.getFiles());
+        assertEquals(1, report.getFailed().size());
+        assertTrue(report.getFailed().get(0).endsWith("b.txt"));
+    }
+
+    @Test
+    public void testReportsCorruptInput() throws Exception {
+        Path input = tmp.newFolder("corrupt").toPath();
+        Path output = tmp.getRoot().toPath().resolve("corrupt-out");
+        write(input.resolve("good.txt"), " 1234\n");
+        write(input.resolve("letters.txt"), "12a4");
+        write(input.resolve("lines.txt"), "12\n34\n");
+        Files.write(input.resolve("binary.txt"), new byte[] {'1', 0, (byte) 0xFF});
+
+        BatchProcessor.Report report = new BatchProcessor(list -> list).process(input, output);
+
+        assertEquals(4, report.getFiles());
+        assertEquals(3, report.getFailed().size());
+        for (Path failed : report.getFailed()) {
+            assertFalse(failed.endsWith("good.txt"));
+            assertFalse(Files.exists(output.resolve(failed.getFileName().toString())));
+        }
+        assertEquals("1234", new String(Files.readAllBytes(output.resolve("good.txt")), StandardCharsets.US_ASCII));
+    }
+
+    @Test(expected = DigitFormatException.class)
+    public void testStrictLoad() throws Exception {
+        Path file = tmp.newFile("bad.txt").toPath();
+        write(file, "123 456");
+        BatchProcessor.load(file);
+    }
+
+    @Test
+    public void testExecutorAvailable() throws InterruptedException {
+        ExecutorService executor = BatchProcessor.newExecutor();
+        AtomicInteger ran = new AtomicInteger();
+        executor.execute(ran::incrementAndGet);
+        executor.shutdown();
+        executor.awaitTermination(10, java.util.concurrent.TimeUnit.SECONDS);
+        assertEquals(1, ran.get());
+    }
+
+    private static long write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.US_ASCII));
+        return content.length();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BulkIngestTest {
+
+    @Test
+    public void testArrays() {
+        assertEquals("1203", new NumberListImpl(new byte[] {1, 2, 0, 3}).toString());
+        assertEquals("1203", new NumberListImpl(new int[] {1, 2, 0, 3}).toString());
+        assertEquals(0, new NumberListImpl(new byte[0]).size());
+        try {
+            new NumberListImpl(new int[] {1, 10});
+            fail("Digit 10 accepted");
+        } catch (NumberFormatException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testBigInteger() {
+        Random random = new Random(40);
+        for (int bits : new int[] {1, 59, 60, 64, 200, 1000, 20000, 100000}) {
+            BigInteger value = new BigInteger(bits, random);
+            assertEquals(value.toString(), new NumberListImpl(value).toString());
+        }
+        BigInteger power = BigInteger.TEN.pow(576);
+        assertEquals(power.toString(), new NumberListImpl(power).toString());
+        assertEquals(power.subtract(BigInteger.ONE).toString(),
+                new NumberListImpl(power.subtract(BigInteger.ONE)).toString());
+        assertEquals("0", new NumberListImpl(BigInteger.ZERO).toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeBigInteger() {
+        new NumberListImpl(BigInteger.ONE.negate());
+    }
+
+    @Test
+    public void testCopy() {
+        NumberListImpl ternary = new NumberListImpl(new BigInteger(40000, new Random(41))).changeScale(3);
+        NumberListImpl copy = new NumberListImpl(ternary);
+        assertEquals(ternary, copy);
+        assertEquals(3, copy.getBase());
+        copy.set(0, (byte) 0);
+        assertEquals(Byte.valueOf((byte) 1), ternary.get(0));
+
+        List<Byte> plain = new ArrayList<>(Arrays.asList((byte) 4, (byte) 2));
+        NumberListImpl fromList = new NumberListImpl(new PlainNumberList(plain));
+        assertEquals("42", fromList.toString());
+        assertEquals(10, fromList.getBase());
+    }
+
+    @Test
+    public void testAddAll() {
+        NumberListImpl list = new NumberListImpl("12");
+        assertTrue(list.addAll(new NumberListImpl("345")));
+        assertTrue(list.addAll(Arrays.asList((byte) 6, (byte) 7)));
+        assertFalse(list.addAll(new ArrayList<Byte>()));
+        assertTrue(list.addAll(list));
+        assertEquals("12345671234567", list.toString());
+        assertEquals(new NumberListImpl("12345671234567").hashCode(), list.hashCode());
+
+        try {
+            list.addAll(Arrays.asList((byte) 8, null));
+            fail("Null accepted");
+        } catch (NullPointerException e) {
+            assertEquals(14, list.size());
+        }
+    }
+
+    // NumberList which is not a NumberListImpl
+    private static final class PlainNumberList extends java.util.AbstractList<Byte>
+            implements ua.kpi.comsys.test2.NumberList {
+        private final List<Byte> digits;
+
+        PlainNumberList(List<Byte> digits) {
+            this.digits = digits;
+        }
+
+        @Override
+        public Byte get(int index) {
+            return digits.get(index);
+        }
+
+        @Override
+        public int size() {
+            return digits.size();
+        }
+
+        @Override
+        public boolean swap(int index1, int index2) {
+            return false;
+        }
+
+        @Override
+        public void sortAscending() {
+        }
+
+        @Override
+        public void sortDescending() {
+        }
+
+        @Override
+        public void shiftLeft() {
+        }
+
+        @Override
+        public void shiftRight() {
+        }
+    }
+}
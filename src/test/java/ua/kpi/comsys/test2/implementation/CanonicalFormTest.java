@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CanonicalFormTest {
+
+    @Test
+    public void testSignificantLength() {
+        NumberListImpl list = new NumberListImpl("000123");
+        assertEquals(6, list.size());
+        assertEquals(3, list.significantLength());
+        assertFalse(list.isCanonical());
+
+        list.set(1, (byte) 5);
+        assertEquals(5, list.significantLength());
+        list.remove(1);
+        assertEquals(3, list.significantLength());
+        list.set(2, (byte) 0);
+        assertEquals(2, list.significantLength());
+        assertEquals(0, new NumberListImpl("0000").significantLength());
+        assertEquals(0, new NumberListImpl().significantLength());
+    }
+
+    @Test
+    public void testCanonicalMode() {
+        NumberListImpl list = new NumberListImpl("000123");
+        list.setCanonical(true);
+        assertEquals("123", list.toString());
+        assertEquals(new NumberListImpl("123"), list);
+        assertEquals(new NumberListImpl("123").hashCode(), list.hashCode());
+
+        list.set(0, (byte) 0);
+        assertEquals("23", list.toString());
+        list.remove(0);
+        list.shiftLeft();
+        assertEquals("30", list.toString());
+        list.sortAscending();
+        assertEquals("3", list.toString());
+        list.set(0, (byte) 0);
+        assertEquals("0", list.toString());
+        list.shiftLeft();
+        assertEquals("0", list.toString());
+        list.add((byte) 7);
+        assertEquals("7", list.toString());
+        assertEquals(Byte.valueOf((byte) 7), list.get(0));
+    }
+
+    @Test
+    public void testStripsAcrossChunks() {
+        byte[] digits = new byte[3 * NumberListImpl.MAX_CHUNK + 5];
+        digits[digits.length - 3] = 4;
+        digits[digits.length - 1] = 2;
+        NumberListImpl list = NumberListImpl.fromDigits(digits, 10);
+        assertEquals(3, list.significantLength());
+
+        list.setCanonical(true);
+        assertEquals(3, list.size());
+        assertEquals("402", list.toString());
+        assertEquals(Arrays.asList((byte) 4, (byte) 0, (byte) 2), list);
+    }
+
+    @Test
+    public void testConversionsSkipLeadingZeros() {
+        NumberListImpl padded = new NumberListImpl("0000000255");
+        assertEquals("11111111", padded.changeScale(2).toString());
+        assertEquals("255", padded.changeScale(16).toDecimalString());
+        assertEquals("256", padded.additionalOperation(new NumberListImpl("001")).toString());
+        assertEquals(0, padded.compareNumeric(new NumberListImpl("255").changeScale(7)));
+
+        padded.setCanonical(true);
+        assertTrue(padded.changeScale(8).isCanonical());
+        assertTrue(padded.additionalOperation(padded).isCanonical());
+    }
+}
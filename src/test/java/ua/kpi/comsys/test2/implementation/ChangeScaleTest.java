@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ChangeScaleTest {
+    static int[] BASES = {2, 3, 8, 10, 16};
+    static String[] VALUES = {
+            ScaleOfNotationChangeTest.BINARY,
+            ScaleOfNotationChangeTest.TERNARY,
+            ScaleOfNotationChangeTest.OCTAL,
+            ScaleOfNotationChangeTest.DECIMAL,
+            ScaleOfNotationChangeTest.HEXADECIMAL
+    };
+
+    @Test
+    public void testAllBasePairs() {
+        NumberListImpl decimal = new NumberListImpl(ScaleOfNotationChangeTest.DECIMAL);
+        for (int i = 0; i < BASES.length; i++) {
+            NumberListImpl from = decimal.changeScale(BASES[i]);
+            assertEquals("Wrong base", BASES[i], from.getBase());
+            assertEquals("Invalid result of changeScale(" + BASES[i] + ")", VALUES[i], from.toString());
+
+            for (int j = 0; j < BASES.length; j++) {
+                NumberListImpl to = from.changeScale(BASES[j]);
+                assertEquals("Invalid conversion " + BASES[i] + " -> " + BASES[j], VALUES[j], to.toString());
+                assertEquals("Invalid result of toDecimalString() ",
+                        ScaleOfNotationChangeTest.DECIMAL, to.toDecimalString());
+            }
+        }
+    }
+
+    @Test
+    public void testOriginalUnchanged() {
+        NumberListImpl list = new NumberListImpl("255");
+        NumberListImpl hex = list.changeScale(16);
+
+        assertEquals("FF", hex.toString());
+        assertEquals("255", list.toString());
+        assertEquals(10, list.getBase());
+    }
+
+    @Test
+    public void testZeroAndLeadingZeros() {
+        assertEquals("0", new NumberListImpl().changeScale(2).toString());
+        assertEquals("0", new NumberListImpl("000").changeScale(3).toString());
+        assertEquals("101", new NumberListImpl("0005").changeScale(2).toString());
+        assertEquals("5", new NumberListImpl("0005").changeScale(10).toString());
+    }
+
+    @Test
+    public void testRandomAgainstBigInteger() {
+        Random rnd = new Random(3101);
+        for (int n = 0; n < 200; n++) {
+            BigInteger value = new BigInteger(1 + rnd.nextInt(600), rnd);
+            NumberListImpl list = new NumberListImpl(value.toString());
+            for (int base : BASES) {
+                NumberListImpl converted = list.changeScale(base);
+                assertEquals(value.toString(base).toUpperCase(), converted.toString());
+                assertEquals(value.toString(), converted.toDecimalString());
+            }
+        }
+    }
+
+    @Test
+    public void testLongNumbersAcrossLeaves() {
+        Random rnd = new Random(26);
+        int leaf = Radix.Converter.LEAF;
+        int[] lengths = {leaf - 1, leaf, leaf + 1, 2 * leaf, 3 * leaf + 7, 8 * leaf, 8 * leaf + 1, 20_000};
+        for (int length : lengths) {
+            int from = 2 + rnd.nextInt(15);
+            int to = 2 + rnd.nextInt(15);
+            byte[] digits = new byte[length];
+            for (int i = 0; i < length; i++) digits[i] = (byte) rnd.nextInt(from);
+            digits[0] = 0;
+            NumberListImpl list = NumberListImpl.fromDigits(digits, from);
+            // Leading zeros spanning chunks are skipped while reading them
+            NumberListImpl zeros = NumberListImpl.fromDigits(new byte[NumberListImpl.MAX_CHUNK + 3], from);
+            zeros.addAll(list);
+
+            StringBuilder text = new StringBuilder();
+            for (byte d : digits) text.append(Character.forDigit(d, from));
+            String expected = new BigInteger(text.toString(), from).toString(to).toUpperCase();
+            assertEquals(from + " -> " + to + ", " + length + " digits", expected, list.changeScale(to).toString());
+            assertEquals(from + " -> " + to + ", " + length + " digits", expected, zeros.changeScale(to).toString());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedBase() {
+        new NumberListImpl("10").changeScale(17);
+    }
+}
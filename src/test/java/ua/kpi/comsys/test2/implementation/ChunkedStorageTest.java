@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChunkedStorageTest {
+
+    @Test
+    public void testRandomOperationsAgainstReference() {
+        Random rnd = new Random(3101);
+        NumberListImpl list = new NumberListImpl();
+        List<Byte> reference = new LinkedList<>();
+
+        for (int step = 0; step < 40000; step++) {
+            int op = rnd.nextInt(10);
+            if (op < 4 || reference.isEmpty()) {
+                byte d = (byte) rnd.nextInt(10);
+                list.add(d);
+                reference.add(d);
+            } else if (op < 6) {
+                int i = rnd.nextInt(reference.size());
+                assertEquals(reference.remove(i), list.remove(i));
+            } else if (op < 8) {
+                int i = rnd.nextInt(reference.size());
+                byte d = (byte) rnd.nextInt(10);
+                assertEquals(reference.set(i, d), list.set(i, d));
+            } else {
+                int i = rnd.nextInt(reference.size());
+                assertEquals(reference.get(i), list.get(i));
+            }
+            assertEquals(reference.size(), list.size());
+        }
+        assertEquals(reference, list);
+        assertArrayEquals(reference.toArray(), list.toArray());
+        assertEquals(reference.indexOf((byte) 7), list.indexOf((byte) 7));
+        assertEquals(reference.lastIndexOf((byte) 7), list.lastIndexOf((byte) 7));
+    }
+
+    @Test
+    public void testRemoveAll() {
+        String value = "1020304050607080900";
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) sb.append(value);
+        NumberListImpl list = new NumberListImpl(sb.toString());
+
+        assertTrue(list.removeAll(Arrays.asList((byte) 0, (byte) 5)));
+        assertEquals(sb.toString().replace("0", "").replace("5", ""), list.toString());
+        assertFalse(list.removeAll(Arrays.asList((byte) 0)));
+        list.add((byte) 4);
+        assertEquals(Byte.valueOf((byte) 4), list.get(list.size() - 1));
+
+        assertTrue(list.removeAll(Arrays.asList((byte) 1, (byte) 2, (byte) 3, (byte) 4, (byte) 6,
+                (byte) 7, (byte) 8, (byte) 9)));
+        assertTrue(list.isEmpty());
+        list.add((byte) 1);
+        assertEquals("1", list.toString());
+    }
+
+    @Test
+    public void testSortKeepsBase() {
+        NumberListImpl list = new NumberListImpl("9081726354").changeScale(3);
+        String digits = list.toString();
+        list.sortDescending();
+        assertEquals(3, list.getBase());
+        char[] sorted = digits.toCharArray();
+        Arrays.sort(sorted);
+        assertEquals(new StringBuilder(new String(sorted)).reverse().toString(), list.toString());
+        list.sortAscending();
+        assertEquals(new String(sorted), list.toString());
+    }
+
+    @Test
+    public void testIteratorsAndShifts() {
+        NumberListImpl list = new NumberListImpl("123");
+        for (int i = 0; i < 10000; i++) list.shiftLeft();
+        assertEquals(10003, list.size());
+        for (int i = 0; i < 10000; i++) list.shiftRight();
+        assertEquals("123", list.toString());
+
+        Iterator<Byte> it = list.iterator();
+        assertEquals(Byte.valueOf((byte) 1), it.next());
+        assertTrue(list.swap(0, 2));
+        assertEquals("321", list.toString());
+    }
+}
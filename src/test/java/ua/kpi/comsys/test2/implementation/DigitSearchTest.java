@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DigitSearchTest {
+
+    @Test
+    public void testSingleDigit() {
+        Random random = new Random(41);
+        String digits = randomDigits(random, 3 * NumberListImpl.MAX_CHUNK + 77, 9);
+        NumberListImpl list = new NumberListImpl(digits);
+        for (int d = 0; d <= 9; d++) {
+            String c = String.valueOf(d);
+            assertEquals(digits.indexOf(c), list.indexOf((byte) d));
+            assertEquals(digits.lastIndexOf(c), list.lastIndexOf((byte) d));
+            assertEquals(d != 9, list.contains((byte) d));
+            assertEquals(naive(digits, c).length, list.countOccurrences(new byte[] {(byte) d}));
+        }
+        list.remove(0);
+        list.remove(list.size() - 1);
+        assertEquals(digits.substring(1).indexOf('5'), list.indexOf((byte) 5));
+        assertEquals(-1, list.indexOf(5));
+    }
+
+    @Test
+    public void testPatterns() {
+        Random random = new Random(410);
+        // Few distinct digits make many overlapping and cross-chunk matches
+        String digits = randomDigits(random, 5 * NumberListImpl.MAX_CHUNK + 13, 2);
+        NumberListImpl list = new NumberListImpl(digits);
+        for (int length : new int[] {1, 2, 3, 7, 20, 5000}) {
+            int from = random.nextInt(digits.length() - length);
+            String pattern = digits.substring(from, from + length);
+            byte[] p = bytes(pattern);
+            int[] expected = naive(digits, pattern);
+            assertArrayEquals(pattern, expected, list.findAll(p));
+            assertArrayEquals(pattern, expected, list.findAll(p, true));
+            assertEquals(expected.length, list.countOccurrences(p));
+            assertEquals(expected.length, list.countOccurrences(p, true));
+            assertEquals(digits.indexOf(pattern), list.indexOfSequence(p));
+            assertEquals(digits.indexOf(pattern), list.indexOfSequence(new NumberListImpl(pattern)));
+        }
+        assertEquals(-1, list.indexOfSequence(new byte[] {2}));
+        assertEquals(0, list.findAll(bytes(digits + "0")).length);
+    }
+
+    @Test
+    public void testParallelAcrossTasks() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 300 * NumberListImpl.MAX_CHUNK / 10; i++) sb.append(i % 997 == 0 ? "1000000009" : "1234567890");
+        String digits = sb.toString();
+        NumberListImpl list = new NumberListImpl(digits);
+        byte[] zeros = bytes("000000");
+        int[] expected = naive(digits, "000000");
+        assertTrue(expected.length > 0);
+        assertArrayEquals(expected, list.findAll(zeros, true));
+        assertEquals(expected.length, list.countOccurrences(zeros, true));
+        assertFalse(list.countOccurrences(bytes("0000000000")) > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyPattern() {
+        new NumberListImpl("123").findAll(new byte[0]);
+    }
+
+    private static int[] naive(String text, String pattern) {
+        List<Integer> found = new ArrayList<>();
+        for (int i = text.indexOf(pattern); i >= 0; i = text.indexOf(pattern, i + 1)) found.add(i);
+        return found.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static byte[] bytes(String digits) {
+        byte[] b = new byte[digits.length()];
+        for (int i = 0; i < b.length; i++) b[i] = (byte) (digits.charAt(i) - '0');
+        return b;
+    }
+
+    private static String randomDigits(Random random, int n, int bound) {
+        StringBuilder sb = new StringBuilder(n);
+        for (int i = 0; i < n; i++) sb.append((char) ('0' + random.nextInt(bound)));
+        return sb.toString();
+    }
+}
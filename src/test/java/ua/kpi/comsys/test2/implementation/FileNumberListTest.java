@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FileNumberListTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testSameAsLoadedList() throws IOException {
+        for (String name : new String[] {FileListTest.FILE_1, FileListTest.FILE_227,
+                FileListTest.FILE_BIG, FileListTest.FILE_EMPTY}) {
+            NumberListImpl expected = new NumberListImpl(new File(name));
+            try (FileNumberList list = FileNumberList.open(Path.of(name))) {
+                assertEquals("Incorrect size of " + name, expected.size(), list.size());
+                assertEquals("Incorrect digits of " + name, expected, list);
+                assertEquals(expected, list.toNumberList());
+            }
+        }
+    }
+
+    @Test
+    public void testTouchesOnlyNeededPages() throws IOException {
+        int pages = 40;
+        Path file = writeText(" " + digits(pages * FileNumberList.TEXT_PAGE_SIZE - 3) + "\r\n");
+
+        try (FileNumberList list = FileNumberList.open(file, 4)) {
+            assertEquals(pages * FileNumberList.TEXT_PAGE_SIZE - 3, list.size());
+            assertEquals(0, list.pageLoads());
+
+            int last = list.size() - 1;
+            assertEquals(Byte.valueOf((byte) (last % 10)), list.get(last));
+            assertEquals(Byte.valueOf((byte) 0), list.get(0));
+            assertEquals(2, list.pageLoads());
+
+            assertEquals(3, list.indexOf((byte) 3));
+            assertEquals(last - 1, list.lastIndexOf((byte) ((last - 1) % 10)));
+            assertEquals(2, list.pageLoads());
+
+            int from = 7 * FileNumberList.TEXT_PAGE_SIZE - 2;
+            List<Byte> sub = list.subList(from, from + 5);
+            assertEquals(5, sub.size());
+            assertEquals(Byte.valueOf((byte) (from % 10)), sub.get(0));
+            assertEquals(Byte.valueOf((byte) ((from + 4) % 10)), sub.get(4));
+            assertEquals(4, list.pageLoads());
+        }
+    }
+
+    @Test
+    public void testPackedFile() throws IOException {
+        NumberListImpl ternary = new NumberListImpl(digits(200000)).changeScale(3);
+        File f = tmp.newFile();
+        ternary.savePacked(f);
+
+        try (FileNumberList list = FileNumberList.open(f.toPath(), 2)) {
+            assertEquals(3, list.getBase());
+            assertEquals(ternary.size(), list.size());
+            assertEquals(ternary.get(ternary.size() - 1), list.get(list.size() - 1));
+            assertEquals(1, list.pageLoads());
+            assertEquals(ternary, list.toNumberList());
+            assertEquals(3, list.toNumberList().getBase());
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testInvalidCharacter() throws IOException {
+        try (FileNumberList list = FileNumberList.open(writeText("12 34"))) {
+            list.get(0);
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnly() throws IOException {
+        try (FileNumberList list = FileNumberList.open(writeText("1234"))) {
+            assertTrue(list.contains((byte) 4));
+            list.swap(0, 1);
+        }
+    }
+
+    private static String digits(int n) {
+        StringBuilder sb = new StringBuilder(n);
+        for (int i = 0; i < n; i++) sb.append((char) ('0' + i % 10));
+        return sb.toString();
+    }
+
+    private Path writeText(String content) throws IOException {
+        Path file = tmp.newFile().toPath();
+        Files.write(file, content.getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+}
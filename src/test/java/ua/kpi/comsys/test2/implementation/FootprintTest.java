@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+
+import javax.management.MBeanServer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FootprintTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testInlineAndChunked() {
+        NumberListImpl list = new NumberListImpl("12345");
+        assertEquals(NumberListImpl.LIST_BYTES, list.estimatedFootprintBytes());
+
+        byte[] digits = new byte[100_000];
+        NumberListImpl big = new NumberListImpl(digits);
+        long bytes = big.estimatedFootprintBytes();
+        assertTrue(bytes >= digits.length);
+        // Full chunks waste little on headers
+        assertTrue(bytes < digits.length * 1.1);
+
+        big.clear();
+        assertEquals(NumberListImpl.LIST_BYTES, big.estimatedFootprintBytes());
+    }
+
+    @Test
+    public void testAccountingFollowsChanges() {
+        Random random = new Random(46);
+        NumberListImpl list = new NumberListImpl();
+        for (int round = 0; round < 2000; round++) {
+            switch (random.nextInt(8)) {
+                case 0:
+                    list.addAll(new NumberListImpl(new byte[random.nextInt(3 * NumberListImpl.MAX_CHUNK)]));
+                    break;
+                case 1:
+                    if (list.size() > 0) list.remove(random.nextInt(list.size()));
+                    break;
+                case 2:
+                    list.removeAll(Collections.singleton((byte) random.nextInt(10)));
+                    break;
+                case 3:
+                    list.setCanonical(!list.isCanonical());
+                    break;
+                case 4:
+                    if (list.size() > 0) list.set(random.nextInt(list.size()), (byte) (1 + random.nextInt(9)));
+                    break;
+                case 5:
+                    NumberListImpl view = list.snapshot();
+                    list.add((byte) 7);
+                    assertEquals(view.countStorageBytes(), view.estimatedFootprintBytes() - NumberListImpl.LIST_BYTES);
+                    break;
+                case 6:
+                    if (random.nextInt(20) == 0) list.clear();
+                    break;
+                default:
+                    for (int i = random.nextInt(100); i > 0; i--) list.add((byte) random.nextInt(10));
+                    break;
+            }
+            assertEquals(list.countStorageBytes(), list.estimatedFootprintBytes() - NumberListImpl.LIST_BYTES);
+        }
+    }
+
+    @Test
+    public void testRegistryBreakdown() {
+        NumberListRegistry registry = new NumberListRegistry();
+        NumberListImpl small = new NumberListImpl("42");
+        NumberListImpl decimal = new NumberListImpl(new byte[5000]);
+        NumberListImpl ternary = decimal.changeScale(3);
+        ternary.addAll(new NumberListImpl(new byte[40]));
+        registry.register(small);
+        registry.register(decimal);
+        registry.register(ternary);
+
+        assertEquals(3, registry.getLiveLists());
+        assertEquals(2 + 5000 + ternary.size(), registry.getTotalDigits());
+        long total = small.estimatedFootprintBytes() + decimal.estimatedFootprintBytes()
+                + ternary.estimatedFootprintBytes();
+        assertEquals(total, registry.getTotalBytes());
+
+        Map<Integer, Long> digits = registry.getDigitsByBase();
+        assertEquals(Long.valueOf(5002), digits.get(10));
+        assertEquals(Long.valueOf(ternary.size()), digits.get(3));
+        assertEquals(Long.valueOf(ternary.estimatedFootprintBytes()), registry.getBytesByBase().get(3));
+
+        assertEquals(Long.valueOf(1), registry.getListsByBackend().get("inline"));
+        long other = registry.getListsByBackend().getOrDefault("chunked", 0L)
+                + registry.getListsByBackend().getOrDefault("packed", 0L);
+        assertEquals(2, other);
+        assertEquals(Long.valueOf(NumberListImpl.LIST_BYTES), registry.getBytesByBackend().get("inline"));
+    }
+
+    @Test
+    public void testMBean() throws Exception {
+        NumberListRegistry.registerMBean();
+        NumberListRegistry.registerMBean();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        long digits = (Long) server.getAttribute(NumberListRegistry.objectName(), "TotalDigits");
+        if (!NumberListRegistry.isEnabled()) assertEquals(0, digits);
+        assertTrue(server.getAttribute(NumberListRegistry.objectName(), "BytesByBackend")
+                instanceof javax.management.openmbean.TabularData);
+    }
+
+    @Test
+    public void testFileList() throws Exception {
+        Path file = tmp.newFile("n.txt").toPath();
+        new NumberListImpl(new byte[3 * FileNumberList.TEXT_PAGE_SIZE]).saveList(file.toFile());
+        try (FileNumberList list = FileNumberList.open(file, 2)) {
+            long empty = list.estimatedFootprintBytes();
+            list.get(0);
+            long one = list.estimatedFootprintBytes();
+            assertTrue(one - empty >= FileNumberList.TEXT_PAGE_SIZE);
+            list.get(list.size() - 1);
+            list.get(FileNumberList.TEXT_PAGE_SIZE);
+            // Only two pages are cached
+            assertEquals(2 * (one - empty), list.estimatedFootprintBytes() - empty);
+        }
+    }
+}
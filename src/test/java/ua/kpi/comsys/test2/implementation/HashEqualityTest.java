@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HashEqualityTest {
+
+    @Test
+    public void testListContract() {
+        NumberListImpl list = new NumberListImpl("9081726354");
+        List<Byte> reference = new ArrayList<>(list);
+
+        assertEquals(reference.hashCode(), list.hashCode());
+        assertEquals(new ArrayList<Byte>().hashCode(), new NumberListImpl().hashCode());
+        assertTrue(list.equals(reference));
+        assertTrue(reference.equals(list));
+    }
+
+    @Test
+    public void testCacheFollowsMutations() {
+        NumberListImpl list = new NumberListImpl("12345");
+        list.hashCode();
+
+        list.add((byte) 6);
+        assertEquals(new NumberListImpl("123456").hashCode(), list.hashCode());
+        assertEquals(new NumberListImpl("123456").digest(), list.digest());
+
+        list.set(0, (byte) 9);
+        assertEquals(new NumberListImpl("923456").hashCode(), list.hashCode());
+        list.swap(0, 5);
+        assertEquals(new NumberListImpl("623459").hashCode(), list.hashCode());
+        list.sortAscending();
+        assertEquals(new NumberListImpl("234569").hashCode(), list.hashCode());
+        list.remove(5);
+        list.remove(0);
+        assertEquals(new NumberListImpl("3456").hashCode(), list.hashCode());
+        list.shiftLeft();
+        assertEquals(new NumberListImpl("34560").digest(), list.digest());
+        list.clear();
+        assertEquals(1, list.hashCode());
+    }
+
+    @Test
+    public void testHashSetDeduplication() {
+        Set<NumberListImpl> set = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            set.add(new NumberListImpl(String.valueOf(i % 250)));
+        }
+        assertEquals(250, set.size());
+        assertTrue(set.contains(new NumberListImpl("249")));
+        assertFalse(set.contains(new NumberListImpl("250")));
+    }
+
+    @Test
+    public void testEqualsAcrossChunkLayouts() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 3 * NumberListImpl.MAX_CHUNK; i++) sb.append((char) ('0' + i % 7));
+        NumberListImpl appended = new NumberListImpl(sb.toString());
+
+        NumberListImpl shifted = new NumberListImpl("55" + sb);
+        shifted.remove(0);
+        shifted.remove(0);
+        NumberListImpl other = new NumberListImpl(sb.toString());
+        other.digest();
+        shifted.digest();
+
+        assertEquals(appended, shifted);
+        assertEquals(appended.hashCode(), shifted.hashCode());
+        assertEquals(appended.digest(), shifted.digest());
+
+        other.set(other.size() - 1, (byte) 9);
+        assertNotEquals(appended, other);
+        assertNotEquals(appended.digest(), other.digest());
+    }
+}
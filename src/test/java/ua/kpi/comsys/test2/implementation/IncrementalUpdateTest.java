@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class IncrementalUpdateTest {
+
+    private static NumberListImpl random(int length, int base, Random random) {
+        byte[] digits = new byte[length];
+        for (int i = 0; i < length; i++) digits[i] = (byte) random.nextInt(base);
+        digits[0] = (byte) (1 + random.nextInt(base - 1));
+        return NumberListImpl.fromDigits(digits, base);
+    }
+
+    private static void edit(NumberListImpl list, Random random) {
+        int i = random.nextInt(list.size());
+        if (random.nextBoolean()) {
+            list.set(i, (byte) random.nextInt(list.getBase()));
+        } else {
+            list.swap(i, random.nextInt(list.size()));
+        }
+    }
+
+    @Test
+    public void testChangedRanges() {
+        NumberListImpl list = new NumberListImpl(new byte[100]);
+        long v0 = list.version();
+        assertArrayEquals(new int[0], list.changedRanges(v0));
+
+        list.set(10, (byte) 1);
+        list.set(11, (byte) 2);
+        list.swap(50, 3);
+        long v1 = list.version();
+        list.set(70, (byte) 7);
+        assertArrayEquals(new int[] {3, 4, 10, 12, 50, 51, 70, 71}, list.changedRanges(v0));
+        assertArrayEquals(new int[] {70, 71}, list.changedRanges(v1));
+
+        list.sortDescending();
+        assertArrayEquals(new int[] {0, 100}, list.changedRanges(v1));
+
+        // Snapshots start a history of their own
+        NumberListImpl view = list.snapshot();
+        assertArrayEquals(new int[0], view.changedRanges(view.version()));
+
+        long v2 = list.version();
+        list.add((byte) 5);
+        assertNull(list.changedRanges(v2));
+        assertArrayEquals(new int[0], list.changedRanges(list.version()));
+
+        long v3 = list.version();
+        for (int i = 0; i <= NumberListImpl.EDIT_LOG; i++) list.set(i, (byte) 3);
+        assertNull(list.changedRanges(v3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFutureVersion() {
+        NumberListImpl list = new NumberListImpl("123");
+        list.changedRanges(list.version() + 1);
+    }
+
+    @Test
+    public void testCanonicalStripping() {
+        NumberListImpl list = new NumberListImpl("5000");
+        list.setCanonical(true);
+        long v = list.version();
+        list.set(0, (byte) 0);
+        assertNull(list.changedRanges(v));
+    }
+
+    @Test
+    public void testSum() {
+        Random random = new Random(48);
+        for (int base : new int[] {2, 3, 10, 16}) {
+            List<NumberListImpl> operands = Arrays.asList(random(30_000, base, random),
+                    random(20_000, base, random), random(5, base, random));
+            IncrementalSum sum = new IncrementalSum(operands);
+            for (int round = 0; round < 200; round++) {
+                for (int e = random.nextInt(4); e >= 0; e--) edit(operands.get(random.nextInt(3)), random);
+                assertEquals(NumberLists.sum(operands), sum.value());
+            }
+            assertEquals(1, sum.rebuilds());
+
+            operands.get(1).add((byte) 1);
+            assertEquals(NumberLists.sum(operands), sum.value());
+            assertEquals(2, sum.rebuilds());
+        }
+    }
+
+    @Test
+    public void testSumCarries() {
+        NumberListImpl a = new NumberListImpl(new byte[] {9, 9, 9, 9, 9, 9});
+        NumberListImpl b = new NumberListImpl(new byte[] {0, 0, 0, 0, 0, 0});
+        IncrementalSum sum = new IncrementalSum(Arrays.asList(a, b));
+        b.set(5, (byte) 1);
+        assertEquals(new NumberListImpl("1000000"), sum.value());
+        b.set(5, (byte) 0);
+        a.set(5, (byte) 8);
+        assertEquals(new NumberListImpl("999998"), sum.value());
+        assertEquals(1, sum.rebuilds());
+    }
+
+    @Test
+    public void testManyBinaryOperands() {
+        NumberListImpl shared = NumberListImpl.fromDigits(new byte[] {1, 0, 1}, 2);
+        NumberListImpl last = NumberListImpl.fromDigits(new byte[] {0, 0, 0}, 2);
+        List<NumberListImpl> operands = new ArrayList<>(Collections.nCopies((1 << 21) - 1, shared));
+        operands.add(last);
+        IncrementalSum sum = new IncrementalSum(operands);
+        BigInteger n = BigInteger.valueOf((1 << 21) - 1);
+        assertEquals(n.multiply(BigInteger.valueOf(5)).toString(2), sum.value().toString());
+
+        // Carries of the patch reach past the widest operand
+        last.set(0, (byte) 1);
+        last.set(2, (byte) 1);
+        assertEquals(BigInteger.valueOf(5L << 21).toString(2), sum.value().toString());
+        assertEquals(1, sum.rebuilds());
+    }
+
+    @Test
+    public void testConversion() {
+        Random random = new Random(480);
+        int[][] pairs = {{10, 3}, {3, 10}, {2, 16}, {16, 8}, {3, 9}, {9, 3}, {16, 10}, {7, 5}};
+        for (int[] pair : pairs) {
+            NumberListImpl source = random(600, pair[0], random);
+            IncrementalConversion conversion = new IncrementalConversion(source, pair[1]);
+            for (int round = 0; round < 100; round++) {
+                for (int e = random.nextInt(3); e >= 0; e--) edit(source, random);
+                assertEquals(source.changeScale(pair[1]), conversion.value());
+            }
+            assertEquals(1, conversion.rebuilds());
+
+            source.shiftRight();
+            assertEquals(source.changeScale(pair[1]), conversion.value());
+            assertEquals(2, conversion.rebuilds());
+        }
+    }
+
+    @Test
+    public void testConversionToZeroAndBack() {
+        NumberListImpl source = new NumberListImpl(new byte[] {0, 0, 0, 4});
+        IncrementalConversion conversion = new IncrementalConversion(source, 3);
+        source.set(3, (byte) 0);
+        assertEquals(new NumberListImpl(new byte[] {0}).changeScale(3), conversion.value());
+        source.set(0, (byte) 9);
+        assertEquals(new NumberListImpl("9000").changeScale(3), conversion.value());
+        assertEquals(1, conversion.rebuilds());
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testDigitOutOfRange() {
+        NumberListImpl source = new NumberListImpl("1234");
+        IncrementalConversion conversion = new IncrementalConversion(source, 3);
+        source.set(2, (byte) 12);
+        conversion.value();
+    }
+}
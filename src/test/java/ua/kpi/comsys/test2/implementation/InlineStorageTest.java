@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InlineStorageTest {
+
+    @Test
+    public void testPromotion() {
+        NumberListImpl list = new NumberListImpl("123456789012345678");
+        assertTrue(list.isInline());
+        assertEquals(18, list.size());
+        assertEquals(Byte.valueOf((byte) 8), list.get(17));
+
+        list.add((byte) 9);
+        assertFalse(list.isInline());
+        assertEquals("1234567890123456789", list.toString());
+        assertEquals(new NumberListImpl("1234567890123456789"), list);
+
+        NumberListImpl binary = NumberListImpl.fromDigits(new byte[62], 2);
+        assertTrue(binary.isInline());
+        binary.add((byte) 1);
+        assertFalse(binary.isInline());
+        assertEquals(1, binary.mod(4));
+    }
+
+    @Test
+    public void testDigitsOutOfRange() {
+        NumberListImpl list = new NumberListImpl("12");
+        list.add((byte) 12);
+        assertFalse(list.isInline());
+        assertEquals(Byte.valueOf((byte) 12), list.get(2));
+
+        NumberListImpl other = new NumberListImpl("12");
+        other.set(0, (byte) -1);
+        assertFalse(other.isInline());
+        assertEquals(Byte.valueOf((byte) -1), other.get(0));
+    }
+
+    @Test
+    public void testOperationsMatchList() {
+        Random random = new Random(43);
+        for (int round = 0; round < 300; round++) {
+            int base = ChangeScaleTest.BASES[random.nextInt(ChangeScaleTest.BASES.length)];
+            NumberListImpl list = new NumberListImpl(base);
+            List<Byte> expected = new ArrayList<>();
+            // Lists move to chunks when they outgrow a long, and stay there until emptied
+            boolean chunked = false;
+            for (int step = 0; step < 40; step++) {
+                int size = expected.size();
+                byte digit = (byte) random.nextInt(base);
+                switch (random.nextInt(7)) {
+                    case 0:
+                    case 1:
+                        list.add(digit);
+                        expected.add(digit);
+                        break;
+                    case 2:
+                        if (size > 0) {
+                            int i = random.nextInt(size);
+                            assertEquals(expected.set(i, digit), list.set(i, digit));
+                        }
+                        break;
+                    case 3:
+                        if (size > 0) {
+                            int i = random.nextInt(size);
+                            assertEquals(expected.remove(i), list.remove(i));
+                        }
+                        break;
+                    case 4:
+                        if (size > 0) {
+                            int i = random.nextInt(size);
+                            int j = random.nextInt(size);
+                            list.swap(i, j);
+                            Collections.swap(expected, i, j);
+                        }
+                        break;
+                    case 5:
+                        if (random.nextBoolean()) {
+                            list.sortAscending();
+                            Collections.sort(expected);
+                        } else {
+                            list.sortDescending();
+                            expected.sort(Collections.reverseOrder());
+                        }
+                        break;
+                    default:
+                        list.shiftRight();
+                        if (size > 0) expected.remove(size - 1);
+                        break;
+                }
+                assertEquals(expected, list);
+                assertEquals(expected.hashCode(), list.hashCode());
+                if (expected.size() > Radix.table(base).longDigits) chunked = true;
+                if (expected.isEmpty()) chunked = false;
+                assertEquals(!chunked, list.isInline());
+            }
+        }
+    }
+
+    @Test
+    public void testArithmeticMatchesBigInteger() {
+        Random random = new Random(430);
+        for (int i = 0; i < 500; i++) {
+            long a = random.nextLong() >>> (1 + random.nextInt(63));
+            long b = random.nextLong() >>> (1 + random.nextInt(63));
+            BigInteger x = BigInteger.valueOf(a);
+            BigInteger y = BigInteger.valueOf(b);
+            NumberListImpl left = new NumberListImpl(x);
+            NumberListImpl right = new NumberListImpl(y);
+
+            assertEquals(x.add(y).toString(), left.additionalOperation(right).toString());
+            assertEquals(x.compareTo(y), Integer.signum(left.compareNumeric(right)));
+            assertEquals(x.mod(BigInteger.valueOf(97)).longValue(), left.mod(97));
+            for (int base : ChangeScaleTest.BASES) {
+                NumberListImpl converted = left.changeScale(base);
+                assertEquals(x.toString(base).toUpperCase(), converted.toString());
+                assertEquals(x.toString(), converted.toDecimalString());
+                assertEquals(0, converted.compareNumeric(left));
+            }
+        }
+        NumberListImpl max = new NumberListImpl(BigInteger.valueOf(Long.MAX_VALUE));
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).shiftLeft(1).toString(),
+                max.additionalOperation(max).toString());
+    }
+
+    @Test
+    public void testCanonicalAndSnapshot() {
+        NumberListImpl list = new NumberListImpl("000120");
+        NumberListImpl view = list.snapshot();
+        list.setCanonical(true);
+        assertEquals("120", list.toString());
+        assertEquals(3, list.significantLength());
+        list.set(0, (byte) 0);
+        assertEquals("20", list.toString());
+        assertTrue(list.isInline());
+
+        assertEquals("000120", view.toString());
+        assertEquals(3, view.significantLength());
+        assertEquals(new NumberListImpl("000120"), view);
+    }
+}
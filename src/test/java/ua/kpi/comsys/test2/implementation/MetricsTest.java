@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsTest {
+
+    // Length of the list used with metrics enabled, of many chunks
+    private static final int ENABLED_DIGITS = 16 * NumberListImpl.MAX_CHUNK;
+
+    @After
+    public void tearDown() {
+        NumberListMetrics.reset();
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        for (long v : new long[] {0, 1, 31, 32, 33, 63, 64, 1000, 123456789, Long.MAX_VALUE}) {
+            int index = Histogram.indexOf(v);
+            assertTrue("Value " + v + " above its bucket", v <= Histogram.highestValueOf(index));
+            if (index > 0) {
+                assertTrue("Value " + v + " below its bucket", v > Histogram.highestValueOf(index - 1));
+            }
+        }
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        Histogram h = new Histogram();
+        for (int i = 1; i <= 10000; i++) h.record(i);
+
+        assertEquals(10000, h.count());
+        assertEquals(10000, h.max());
+        assertEquals(5000.5, h.mean(), 1e-9);
+        assertEquals(5000, h.percentile(50), 5000 * 0.04);
+        assertEquals(9900, h.percentile(99), 9900 * 0.04);
+        assertEquals(10000, h.percentile(100));
+
+        h.reset();
+        assertEquals(0, h.count());
+        assertEquals(0, h.percentile(99));
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        org.junit.Assume.assumeTrue(!NumberListMetrics.isEnabled());
+
+        NumberListImpl list = new NumberListImpl("1234567890");
+        list.changeScale(3);
+        list.get(5);
+        for (NumberListMetrics.Operation op : NumberListMetrics.Operation.values()) {
+            assertEquals(op.getDisplayName(), 0, NumberListMetrics.stats(op).getCount());
+        }
+    }
+
+    @Test
+    public void testMBeans() throws JMException {
+        NumberListMetrics.registerMBeans();
+        NumberListMetrics.registerMBeans();
+
+        OperationStats stats = (OperationStats) NumberListMetrics.stats(NumberListMetrics.Operation.CHANGE_SCALE);
+        stats.record(2000, 19);
+        stats.record(4000, 21);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = NumberListMetrics.objectName(NumberListMetrics.Operation.CHANGE_SCALE);
+        assertEquals(2L, server.getAttribute(name, "Count"));
+        assertEquals(6000L, server.getAttribute(name, "TotalNanos"));
+        assertEquals(20.0, (Double) server.getAttribute(name, "MeanSize"), 1e-9);
+        assertEquals(21L, server.getAttribute(name, "MaxSize"));
+
+        server.invoke(name, "reset", new Object[0], new String[0]);
+        assertEquals(0L, server.getAttribute(name, "Count"));
+    }
+
+    @Test
+    public void testEnabledRecordsOperations() throws Exception {
+        // The flag is read once per JVM, so the operations run in a forked one
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = location(NumberListImpl.class) + File.pathSeparator + location(MetricsTest.class);
+        Process process = new ProcessBuilder(java, "-D" + NumberListMetrics.ENABLED_PROPERTY + "=true",
+                "-cp", classPath, MetricsTest.class.getName()).redirectErrorStream(true).start();
+
+        // Lines of operation name, count, total size and maximal size
+        Map<String, long[]> stats = new HashMap<>();
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String line; (line = in.readLine()) != null; ) {
+                output.append(line).append('\n');
+                String[] f = line.split(" ");
+                if (f.length == 4) {
+                    stats.put(f[0], new long[] {Long.parseLong(f[1]), Long.parseLong(f[2]), Long.parseLong(f[3])});
+                }
+            }
+        }
+        assertEquals(output.toString(), 0, process.waitFor());
+
+        long[] changeScale = stats.get(NumberListMetrics.Operation.CHANGE_SCALE.getDisplayName());
+        assertEquals(1, changeScale[0]);
+        assertEquals(ENABLED_DIGITS, changeScale[1]);
+        long[] addition = stats.get(NumberListMetrics.Operation.ADDITIONAL_OPERATION.getDisplayName());
+        assertEquals(1, addition[0]);
+        assertEquals(ENABLED_DIGITS, addition[1]);
+        long[] locate = stats.get(NumberListMetrics.Operation.LOCATE.getDisplayName());
+        assertTrue(output.toString(), locate[0] > 0 && locate[2] > 1);
+        long[] allocate = stats.get(NumberListMetrics.Operation.ALLOCATE.getDisplayName());
+        assertTrue(output.toString(), allocate[0] > 0 && allocate[1] >= ENABLED_DIGITS);
+    }
+
+    private static String location(Class<?> c) throws Exception {
+        return Path.of(c.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+
+    /**
+     * Runs list operations in the JVM forked by
+     * {@link #testEnabledRecordsOperations()} and prints their statistics.
+     */
+    public static void main(String[] args) {
+        if (!NumberListMetrics.isEnabled()) throw new IllegalStateException("Metrics are off");
+        NumberListMetrics.reset();
+        byte[] digits = new byte[ENABLED_DIGITS];
+        for (int i = 0; i < digits.length; i++) digits[i] = (byte) (1 + i % 9);
+        NumberListImpl list = NumberListImpl.fromDigits(digits, 10);
+        list.changeScale(3);
+        list.additionalOperation(new NumberListImpl("1"));
+        list.get(list.size() / 2);
+        for (NumberListMetrics.Operation op : NumberListMetrics.Operation.values()) {
+            OperationStatsMXBean stats = NumberListMetrics.stats(op);
+            System.out.println(op.getDisplayName() + " " + stats.getCount() + " "
+                    + stats.getTotalSize() + " " + stats.getMaxSize());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ModularTest {
+
+    private static final long[] MODULI = {1, 2, 3, 7, 9, 10, 16, 97, 1 << 20, Integer.MAX_VALUE,
+            1_000_000_007L, 3_037_000_499L, (1L << 59) + 5, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+
+    @Test
+    public void testModMatchesBigInteger() {
+        Random random = new Random(42);
+        BigInteger value = new BigInteger(3 * NumberListImpl.MAX_CHUNK * 4 + 11, random);
+        NumberListImpl decimal = new NumberListImpl(value);
+        for (int base : ChangeScaleTest.BASES) {
+            NumberListImpl list = decimal.changeScale(base);
+            for (long m : MODULI) {
+                long expected = value.mod(BigInteger.valueOf(m)).longValue();
+                assertEquals(base + " mod " + m, expected, list.mod(m));
+                if (m <= Integer.MAX_VALUE) assertEquals(expected, list.mod((int) m));
+            }
+        }
+    }
+
+    @Test
+    public void testParallelReduction() {
+        Random random = new Random(420);
+        BigInteger value = new BigInteger(20_000, random);
+        for (int base : ChangeScaleTest.BASES) {
+            NumberListImpl list = new NumberListImpl(value).changeScale(base);
+            DigitSearch.Segments segments = segments(list);
+            for (long m : MODULI) {
+                assertEquals(base + " mod " + m, value.mod(BigInteger.valueOf(m)).longValue(),
+                        Residues.reduce(segments, m, base));
+            }
+        }
+    }
+
+    @Test
+    public void testLeadingZerosAndEmpty() {
+        assertEquals(0, new NumberListImpl().mod(7));
+        NumberListImpl list = new NumberListImpl("000123");
+        assertEquals(123 % 7, list.mod(7));
+        assertEquals(1, list.mod(2));
+        list.add((byte) 4);
+        assertEquals(0, list.mod(2));
+        assertEquals(1234 % 9, list.mod(9L));
+    }
+
+    @Test
+    public void testModPow() {
+        Random random = new Random(4200);
+        BigInteger value = new BigInteger(500, random);
+        BigInteger exponent = new BigInteger(300, random);
+        for (int base : ChangeScaleTest.BASES) {
+            NumberListImpl list = new NumberListImpl(value).changeScale(base);
+            NumberListImpl e = new NumberListImpl(exponent).changeScale(18 - base);
+            for (long m : MODULI) {
+                BigInteger mm = BigInteger.valueOf(m);
+                assertEquals(base + " mod " + m, value.modPow(exponent, mm).longValue(), list.modPow(e, m));
+                assertEquals(value.modPow(BigInteger.valueOf(12345), mm).longValue(), list.modPow(12345, m));
+            }
+            assertEquals(1 % 97, list.modPow(0, 97));
+            assertEquals(1 % 97, list.modPow(new NumberListImpl(), 97));
+        }
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testZeroModulus() {
+        new NumberListImpl("5").mod(0);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testNegativeExponent() {
+        new NumberListImpl("5").modPow(-1, 7);
+    }
+
+    private static DigitSearch.Segments segments(NumberListImpl list) {
+        // Single-digit chunks make many fork-join tasks
+        byte[] digits = list.significantDigits();
+        int n = digits.length;
+        byte[][] arrays = new byte[n][];
+        int[] starts = new int[n];
+        int[] ends = new int[n];
+        for (int i = 0; i < n; i++) {
+            arrays[i] = digits;
+            starts[i] = i;
+            ends[i] = i + 1;
+        }
+        return new DigitSearch.Segments(arrays, starts, ends);
+    }
+}
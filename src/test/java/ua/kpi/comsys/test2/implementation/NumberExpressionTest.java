@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class NumberExpressionTest {
+
+    @Test
+    public void testSumChain() {
+        Random random = new Random(36);
+        BigInteger expected = BigInteger.ZERO;
+        NumberExpression e = null;
+        for (int i = 0; i < 2000; i++) {
+            BigInteger v = new BigInteger(1 + random.nextInt(500), random);
+            expected = expected.add(v);
+            NumberListImpl operand = new NumberListImpl(v.toString());
+            e = e == null ? NumberExpression.of(operand) : e.plus(operand);
+        }
+        assertEquals(expected.toString(), e.evaluate().toString());
+    }
+
+    @Test
+    public void testManyBinaryOperands() {
+        // The carry out of 2^21 ones takes 22 binary digits
+        NumberListImpl one = new NumberListImpl("1").changeScale(2);
+        NumberExpression e = NumberExpression.of(one);
+        for (int i = 1; i < 1 << 21; i++) e = e.plus(one);
+        assertEquals(BigInteger.ONE.shiftLeft(21).toString(2), e.evaluate().toString());
+
+        NumberListImpl ones = NumberListImpl.fromDigits(new byte[] {1, 1, 1}, 2);
+        assertEquals(BigInteger.valueOf(7L << 21).toString(2),
+                render(DigitArithmetic.sum(Collections.nCopies(1 << 21, ones.significantDigits()), 2)));
+    }
+
+    @Test
+    public void testMixedBases() {
+        NumberListImpl a = new NumberListImpl("255").changeScale(16);
+        NumberListImpl b = new NumberListImpl("00010").changeScale(2);
+        NumberExpression e = NumberExpression.of(a).plus(b).plus(NumberExpression.of(b).times(b));
+        assertEquals(16, e.getBase());
+        assertEquals("16D", e.evaluate().toString());
+        assertEquals("365", e.inBase(10).evaluate().toString());
+        assertEquals("0", NumberExpression.of(new NumberListImpl()).times(a).evaluate().toString());
+    }
+
+    @Test
+    public void testProducts() {
+        Random random = new Random(360);
+        for (int base : ChangeScaleTest.BASES) {
+            for (int bits : new int[] {1, 64, 3000, 40000}) {
+                BigInteger x = new BigInteger(bits, random);
+                BigInteger y = new BigInteger(bits / 2 + random.nextInt(bits + 1), random);
+                BigInteger z = new BigInteger(bits / 3 + 1, random);
+                NumberExpression e = NumberExpression.of(list(x, base)).times(list(y, base)).times(list(z, base));
+                assertEquals("base " + base + ", " + bits + " bits",
+                        x.multiply(y).multiply(z).toString(base).toUpperCase(), e.evaluate().toString());
+            }
+        }
+    }
+
+    @Test
+    public void testLazyAndCached() {
+        NumberListImpl a = new NumberListImpl("10");
+        NumberExpression e = NumberExpression.of(a).plus(a);
+        a.add((byte) 0);
+        assertEquals("200", e.evaluate().toString());
+        a.add((byte) 0);
+        assertEquals("200", e.evaluate().toString());
+        assertEquals("1200", e.plus(a).evaluate().toString());
+    }
+
+    @Test
+    public void testAdditionalOperationWithoutStrings() {
+        assertEquals("1000000000000000000000",
+                new NumberListImpl("999999999999999999999").additionalOperation(new NumberListImpl("1")).toString());
+        assertEquals("0", new NumberListImpl().additionalOperation(new NumberListImpl()).toString());
+    }
+
+    private static String render(byte[] digits) {
+        StringBuilder sb = new StringBuilder();
+        for (byte d : digits) sb.append(Character.forDigit(d, 16));
+        return sb.toString();
+    }
+
+    private static NumberListImpl list(BigInteger value, int base) {
+        return new NumberListImpl(value.toString()).changeScale(base);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class NumberListBuilderTest {
+
+    @Test
+    public void testMixedChunks() {
+        NumberListBuilder builder = new NumberListBuilder(20);
+        builder.append("  1234")
+                .append("5678".getBytes(StandardCharsets.US_ASCII))
+                .append(ByteBuffer.wrap("90\n".getBytes(StandardCharsets.US_ASCII)))
+                .append(new StringBuilder(" "), 0, 1);
+
+        assertEquals(10, builder.length());
+        assertEquals(14, builder.position());
+        NumberListImpl list = builder.build();
+        assertEquals(new NumberListImpl("1234567890"), list);
+        assertEquals(10, list.getBase());
+    }
+
+    @Test
+    public void testErrorPosition() {
+        NumberListBuilder builder = new NumberListBuilder();
+        builder.append("123");
+        try {
+            builder.append(" 45");
+            fail("Whitespace between digits has to be reported");
+        } catch (DigitFormatException e) {
+            assertEquals(4, e.getPosition());
+            assertEquals('4', e.getCharacter());
+        }
+        try {
+            builder.append("6");
+            fail("Failed builder has to be unusable");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testInvalidByte() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] {'1', '2', (byte) 0xD9, '3'});
+        try {
+            new NumberListBuilder().append(buffer);
+            fail("Non ASCII byte has to be reported");
+        } catch (DigitFormatException e) {
+            assertEquals(2, e.getPosition());
+            assertEquals(0xD9, e.getCharacter());
+            assertEquals(2, buffer.position());
+        }
+    }
+
+    @Test
+    public void testOtherBase() {
+        NumberListImpl hex = new NumberListBuilder(16, 0).append("ff").append("0A").build();
+        assertEquals(16, hex.getBase());
+        assertEquals("FF0A", hex.toString());
+        assertEquals("65290", hex.toDecimalString());
+
+        try {
+            new NumberListBuilder(3, 0).append("2103");
+            fail("Digit out of base range has to be reported");
+        } catch (DigitFormatException e) {
+            assertEquals(3, e.getPosition());
+        }
+    }
+
+    @Test
+    public void testLargeInputInSmallChunks() {
+        NumberListBuilder builder = new NumberListBuilder(100000);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            String chunk = Integer.toString(1000000000 + i * 7919);
+            builder.append(chunk);
+            expected.append(chunk);
+        }
+        NumberListImpl list = builder.build();
+        assertEquals(expected.length(), list.size());
+        assertEquals(expected.toString(), list.toString());
+    }
+
+    @Test
+    public void testBlankInput() {
+        assertTrue(new NumberListBuilder().append(" \t ").build().isEmpty());
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ua.kpi.comsys.test2.NumberList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NumericOrderTest {
+
+    @Test
+    public void testSameBase() {
+        assertTrue(new NumberListImpl("123").compareNumeric(new NumberListImpl("124")) < 0);
+        assertTrue(new NumberListImpl("1000").compareNumeric(new NumberListImpl("999")) > 0);
+        assertEquals(0, new NumberListImpl("000123").compareNumeric(new NumberListImpl("123")));
+        assertEquals(0, new NumberListImpl().compareNumeric(new NumberListImpl("000")));
+        assertTrue(new NumberListImpl().compareNumeric(new NumberListImpl("1")) < 0);
+    }
+
+    @Test
+    public void testAcrossBases() {
+        Random random = new Random(33);
+        for (int i = 0; i < 300; i++) {
+            BigInteger a = new BigInteger(1 + random.nextInt(200), random);
+            BigInteger b = random.nextBoolean() ? a : a.add(BigInteger.valueOf(random.nextInt(3) - 1)).abs();
+            NumberListImpl x = new NumberListImpl(a.toString()).changeScale(
+                    ChangeScaleTest.BASES[random.nextInt(ChangeScaleTest.BASES.length)]);
+            NumberListImpl y = new NumberListImpl(b.toString()).changeScale(
+                    ChangeScaleTest.BASES[random.nextInt(ChangeScaleTest.BASES.length)]);
+            assertEquals(a + " vs " + b, a.compareTo(b), Integer.signum(x.compareNumeric(y)));
+            assertEquals(b.compareTo(a), Integer.signum(y.compareNumeric(x)));
+        }
+    }
+
+    @Test
+    public void testComparatorSortsMixedBases() {
+        Random random = new Random(7);
+        List<NumberList> lists = new ArrayList<>();
+        List<BigInteger> values = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            BigInteger v = new BigInteger(1 + random.nextInt(64), random);
+            values.add(v);
+            lists.add(new NumberListImpl(v.toString()).changeScale(2 + random.nextInt(15)));
+        }
+        lists.sort(NumberLists.numericOrder());
+        values.sort(null);
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(values.get(i).toString(), ((NumberListImpl) lists.get(i)).toDecimalString());
+        }
+    }
+}
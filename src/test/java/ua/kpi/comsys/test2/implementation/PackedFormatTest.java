@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PackedFormatTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testRoundTripAllBases() throws IOException {
+        NumberListImpl decimal = new NumberListImpl(ScaleOfNotationChangeTest.DECIMAL);
+        for (int base : ChangeScaleTest.BASES) {
+            NumberListImpl list = decimal.changeScale(base);
+            for (PackedNumberFormat.Codec codec : PackedNumberFormat.Codec.values()) {
+                File f = tmp.newFile();
+                list.savePacked(f, codec);
+                NumberListImpl loaded = NumberListImpl.loadPacked(f);
+                assertEquals(base, loaded.getBase());
+                assertEquals(list, loaded);
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyList() throws IOException {
+        File f = tmp.newFile();
+        new NumberListImpl().savePacked(f);
+        assertTrue(NumberListImpl.loadPacked(f).isEmpty());
+    }
+
+    @Test
+    public void testCompression() throws IOException {
+        StringBuilder sb = new StringBuilder("1");
+        for (int i = 0; i < 100000; i++) sb.append('0');
+        NumberListImpl list = new NumberListImpl(sb.toString());
+
+        File packed = tmp.newFile();
+        File text = tmp.newFile();
+        list.savePacked(packed);
+        list.saveList(text);
+
+        assertTrue("Run-length encoding is not effective", packed.length() * 50 < text.length());
+        assertEquals(list, NumberListImpl.loadPacked(packed));
+    }
+
+    @Test
+    public void testStreamingSmallBlocks() throws IOException {
+        Random rnd = new Random(3101);
+        byte[] digits = new byte[10007];
+        for (int i = 0; i < digits.length; i++) digits[i] = (byte) (rnd.nextInt(4) == 0 ? rnd.nextInt(3) : 0);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PackedNumberFormat.Encoder encoder =
+                     new PackedNumberFormat.Encoder(out, 3, PackedNumberFormat.Codec.RLE, 100)) {
+            encoder.write(digits, 0, digits.length);
+        }
+
+        byte[] actual = new byte[digits.length];
+        int total = 0;
+        try (PackedNumberFormat.Decoder decoder =
+                     new PackedNumberFormat.Decoder(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(3, decoder.getBase());
+            int n;
+            while ((n = decoder.read(actual, total, 33)) > 0) total += n;
+        }
+        assertEquals(digits.length, total);
+        assertArrayEquals(digits, actual);
+    }
+
+    @Test
+    public void testRandomAccess() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        Random rnd = new Random(42);
+        for (int i = 0; i < 300000; i++) sb.append((char) ('0' + rnd.nextInt(10)));
+        String value = sb.toString();
+        File f = tmp.newFile();
+        new NumberListImpl(value).savePacked(f);
+
+        try (PackedNumberFormat.BlockReader reader = new PackedNumberFormat.BlockReader(f.toPath())) {
+            assertEquals(value.length(), reader.size());
+            assertEquals(5, reader.getBlockCount());
+            byte[] block = reader.readBlock(4);
+            assertEquals(value.length() - 4 * reader.getBlockDigits(), block.length);
+        }
+
+        int from = PackedNumberFormat.DEFAULT_BLOCK_DIGITS - 10;
+        NumberListImpl range = NumberListImpl.loadPacked(f, from, from + 25);
+        assertEquals(value.substring(from, from + 25), range.toString());
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testCorruptedFile() throws IOException {
+        File f = tmp.newFile();
+        new NumberListImpl("123456789").savePacked(f);
+        byte[] data = Files.readAllBytes(f.toPath());
+        data[PackedNumberFormat.HEADER_SIZE + PackedNumberFormat.BLOCK_HEADER_SIZE] = (byte) 0xFF;
+        Files.write(f.toPath(), data);
+        NumberListImpl.loadPacked(f);
+    }
+
+    @Test
+    public void testCorruptedBlockSize() throws IOException {
+        File f = tmp.newFile();
+        new NumberListImpl("123456789").savePacked(f);
+        byte[] data = Files.readAllBytes(f.toPath());
+        // blockDigits follows magic, version, base and codec
+        ByteBuffer.wrap(data).putInt(7, Integer.MAX_VALUE);
+        Files.write(f.toPath(), data);
+        try {
+            NumberListImpl.loadPacked(f);
+            fail("Block size has to be rejected");
+        } catch (UncheckedIOException e) {
+            assertTrue(e.getCause().getMessage().contains("block size"));
+        }
+        try {
+            NumberListImpl.loadPacked(f, 0, 3);
+            fail("Block size has to be rejected");
+        } catch (UncheckedIOException e) {
+            assertTrue(e.getCause().getMessage().contains("block size"));
+        }
+    }
+
+    @Test
+    public void testInvalidDigitNotSaved() {
+        NumberListImpl list = new NumberListImpl("12");
+        list.add((byte) 42);
+        File f = new File(tmp.getRoot(), "invalid.nlpk");
+        try {
+            list.savePacked(f);
+            fail("Digit out of range has to be rejected");
+        } catch (NumberFormatException e) {
+            assertTrue(e.getMessage().contains("position 2"));
+        }
+        assertFalse(f.exists());
+    }
+}
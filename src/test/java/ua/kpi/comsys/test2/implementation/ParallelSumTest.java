@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ua.kpi.comsys.test2.NumberList;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelSumTest {
+
+    @Test
+    public void testRandomOperands() {
+        Random random = new Random(37);
+        for (int base : ChangeScaleTest.BASES) {
+            List<NumberListImpl> lists = new ArrayList<>();
+            BigInteger expected = BigInteger.ZERO;
+            for (int i = 0; i < 300; i++) {
+                BigInteger v = new BigInteger(random.nextInt(4000), random);
+                expected = expected.add(v);
+                lists.add(list(v, base));
+            }
+            for (int parallelism : new int[] {1, 3, 16}) {
+                assertEquals("base " + base, expected.toString(base).toUpperCase(),
+                        render(ParallelSum.sum(lists, base, parallelism)));
+            }
+        }
+    }
+
+    @Test
+    public void testManyBinaryOperands() {
+        // Final carry of 2^21 operands takes 22 binary digits
+        BigInteger ones = BigInteger.ONE.shiftLeft(200).subtract(BigInteger.ONE);
+        List<NumberListImpl> lists = Collections.nCopies(1 << 21, list(ones, 2));
+        String expected = ones.shiftLeft(21).toString(2);
+        for (int parallelism : new int[] {1, 8}) {
+            assertEquals(expected, render(ParallelSum.sum(lists, 2, parallelism)));
+        }
+        List<NumberListImpl> single = Collections.nCopies(1 << 21, new NumberListImpl("1").changeScale(2));
+        assertEquals(BigInteger.ONE.shiftLeft(21).toString(2), render(ParallelSum.sum(single, 2, 8)));
+    }
+
+    @Test
+    public void testCarryCrossesAllSegments() {
+        // 99..9 * 40 + 40 carries through every column
+        BigInteger nines = BigInteger.TEN.pow(5000).subtract(BigInteger.ONE);
+        List<NumberListImpl> lists = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            lists.add(new NumberListImpl(nines.toString()));
+            lists.add(new NumberListImpl("1"));
+        }
+        String expected = nines.add(BigInteger.ONE).multiply(BigInteger.valueOf(40)).toString();
+        assertEquals(expected, render(ParallelSum.sum(lists, 10, 16)));
+
+        // Single carry ripples from the lowest to the highest segment
+        lists = Arrays.asList(new NumberListImpl(nines.toString()), new NumberListImpl("1"),
+                NumberListImpl.fromDigits(new byte[70000], 10));
+        assertEquals(BigInteger.TEN.pow(5000).toString(), render(ParallelSum.sum(lists, 10, 16)));
+    }
+
+    @Test
+    public void testCarryComposition() {
+        ParallelSum.Carry lower = new ParallelSum.Carry(2, 3, 5);
+        ParallelSum.Carry upper = new ParallelSum.Carry(0, 1, 2);
+        ParallelSum.Carry both = upper.after(lower);
+        for (long c = 0; c < 10; c++) {
+            assertEquals(upper.apply(lower.apply(c)), both.apply(c));
+        }
+    }
+
+    @Test
+    public void testMixedListsAndBases() {
+        List<NumberList> lists = new ArrayList<>();
+        lists.add(new NumberListImpl("255").changeScale(16));
+        lists.add(new NumberListImpl("0001"));
+        lists.add(new NumberListImpl("7").changeScale(2));
+        assertEquals("107", NumberLists.sum(lists).toString());
+        assertEquals(16, NumberLists.sum(lists).getBase());
+        assertEquals("0", NumberLists.sum(Collections.<NumberList>emptyList()).toString());
+    }
+
+    private static NumberListImpl list(BigInteger value, int base) {
+        return new NumberListImpl(value.toString()).changeScale(base);
+    }
+
+    private static String render(byte[] digits) {
+        StringBuilder sb = new StringBuilder();
+        for (byte d : digits) sb.append(Radix.toChar(d));
+        return sb.toString();
+    }
+}
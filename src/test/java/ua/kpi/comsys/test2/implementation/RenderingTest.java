@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+
+public class RenderingTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testAllBases() {
+        BigInteger value = new BigInteger(30000, new Random(39));
+        for (int base : ChangeScaleTest.BASES) {
+            NumberListImpl list = new NumberListImpl(value.toString()).changeScale(base);
+            assertEquals(value.toString(base).toUpperCase(), list.toString());
+            assertEquals(value.toString(), list.toDecimalString());
+        }
+        assertEquals("", new NumberListImpl().toString());
+        assertEquals("", new NumberListImpl().toDecimalString());
+    }
+
+    @Test
+    public void testWriteDigits() throws IOException {
+        NumberListImpl list = new NumberListImpl(new BigInteger(100000, new Random(390)).toString()).changeScale(16);
+        String expected = list.toString();
+
+        StringBuilder sb = new StringBuilder();
+        list.writeDigits(sb);
+        assertEquals(expected, sb.toString());
+
+        StringWriter writer = new StringWriter();
+        list.writeDigits(writer);
+        assertEquals(expected, writer.toString());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        list.writeDigits(bytes);
+        assertEquals(expected, bytes.toString(StandardCharsets.US_ASCII));
+
+        bytes.reset();
+        new NumberListImpl().writeDigits(bytes);
+        assertEquals(0, bytes.size());
+    }
+
+    @Test
+    public void testSaveList() throws IOException {
+        String digits = new BigInteger(50000, new Random(391)).toString();
+        for (int base : new int[] {10, 3}) {
+            File file = tmp.newFile();
+            new NumberListImpl(digits).changeScale(base).saveList(file);
+            assertEquals(digits, new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    public void testInvalidDigitsVisible() throws IOException {
+        NumberListImpl list = new NumberListImpl("4");
+        list.add((byte) 42);
+        list.add((byte) -1);
+        assertEquals("4??", list.toString());
+        assertEquals("4??", list.toDecimalString());
+
+        StringBuilder sb = new StringBuilder();
+        list.writeDigits(sb);
+        assertEquals("4??", sb.toString());
+
+        // Conversion rejects such digits, so the stored ones are shown
+        NumberListImpl ternary = new NumberListImpl("12").changeScale(3);
+        ternary.add((byte) 99);
+        assertEquals("110?", ternary.toDecimalString());
+    }
+}
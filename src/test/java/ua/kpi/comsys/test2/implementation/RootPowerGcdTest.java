@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RootPowerGcdTest {
+
+    private static NumberListImpl list(BigInteger value, int base) {
+        return new NumberListImpl(value).changeScale(base);
+    }
+
+    private static BigInteger value(NumberListImpl list) {
+        return new BigInteger(list.toDecimalString());
+    }
+
+    @Test
+    public void testSqrt() {
+        Random random = new Random(49);
+        for (int base : ChangeScaleTest.BASES) {
+            for (int bits : new int[] {1, 20, 63, 64, 100, 500, 3000}) {
+                BigInteger v = new BigInteger(bits, random);
+                NumberListImpl root = list(v, base).sqrt();
+                assertEquals(base, root.getBase());
+                assertEquals(base + " sqrt " + v, v.sqrt(), value(root));
+            }
+            // Perfect squares and their neighbours
+            BigInteger r = new BigInteger(400, random);
+            BigInteger square = r.multiply(r);
+            assertEquals(r, value(list(square, base).sqrt()));
+            assertEquals(r.subtract(BigInteger.ONE), value(list(square.subtract(BigInteger.ONE), base).sqrt()));
+            assertEquals(r, value(list(square.add(BigInteger.ONE), base).sqrt()));
+        }
+        assertEquals(new NumberListImpl("0"), new NumberListImpl().sqrt());
+        assertEquals(new NumberListImpl("3037000499"), new NumberListImpl(String.valueOf(Long.MAX_VALUE)).sqrt());
+    }
+
+    @Test
+    public void testPow() {
+        Random random = new Random(490);
+        for (int base : ChangeScaleTest.BASES) {
+            for (int e : new int[] {0, 1, 2, 3, 7, 64, 129}) {
+                BigInteger v = new BigInteger(1 + random.nextInt(300), random);
+                assertEquals(base + " pow " + e, v.pow(e), value(list(v, base).pow(e)));
+            }
+        }
+        assertEquals(new NumberListImpl("1"), new NumberListImpl().pow(0));
+        assertEquals(new NumberListImpl("0"), new NumberListImpl("000").pow(5));
+        assertEquals(new NumberListImpl("1"), new NumberListImpl("0001").pow(1_000_000));
+        assertEquals(BigInteger.TEN.pow(10_000), value(new NumberListImpl("10").pow(10_000)));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testNegativeExponent() {
+        new NumberListImpl("2").pow(-1);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testPowerTooLarge() {
+        new NumberListImpl("123456789").pow(Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testGcd() {
+        Random random = new Random(4900);
+        for (int base : ChangeScaleTest.BASES) {
+            for (int round = 0; round < 20; round++) {
+                BigInteger g = new BigInteger(1 + random.nextInt(500), random);
+                BigInteger a = g.multiply(new BigInteger(1 + random.nextInt(2000), random));
+                BigInteger b = g.multiply(new BigInteger(1 + random.nextInt(2000), random));
+                NumberListImpl result = list(a, base).gcd(list(b, base));
+                assertEquals(base, result.getBase());
+                assertEquals(base + " gcd", a.gcd(b), value(result));
+            }
+            // Consecutive Fibonacci numbers take the most steps
+            BigInteger f0 = BigInteger.ZERO;
+            BigInteger f1 = BigInteger.ONE;
+            for (int i = 0; i < 3000; i++) {
+                BigInteger f = f0.add(f1);
+                f0 = f1;
+                f1 = f;
+            }
+            assertEquals(BigInteger.ONE, value(list(f1, base).gcd(list(f0, base))));
+        }
+    }
+
+    @Test
+    public void testGcdEdgeCases() {
+        BigInteger big = BigInteger.TEN.pow(200).add(BigInteger.valueOf(40));
+        assertEquals(new NumberListImpl("0"), new NumberListImpl().gcd(new NumberListImpl("0")));
+        assertEquals(new NumberListImpl("12"), new NumberListImpl("0").gcd(new NumberListImpl("012")));
+        assertEquals(new NumberListImpl(big), new NumberListImpl(big).gcd(new NumberListImpl()));
+        assertEquals(new NumberListImpl("20"), new NumberListImpl(big).gcd(new NumberListImpl("60")));
+        assertEquals(new NumberListImpl("6"), new NumberListImpl("18").gcd(new NumberListImpl("30")));
+
+        // The other number is converted to the base of this one
+        NumberListImpl ternary = new NumberListImpl(big.multiply(BigInteger.valueOf(3))).changeScale(3);
+        NumberListImpl result = ternary.gcd(new NumberListImpl(big));
+        assertEquals(3, result.getBase());
+        assertEquals(big, value(result));
+    }
+}
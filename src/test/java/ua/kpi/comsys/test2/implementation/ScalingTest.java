@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Empirical complexity of list operations and randomized cross-checks
+ * against <tt>BigInteger</tt>.<p>
+ *
+ * Growth is measured between 10^3 and 10^5 digits on every run; the
+ * 10^7 digit step runs only with <tt>-Dscaling.large=true</tt>
+ * (<tt>make test-large</tt>). A measurement is repeated before the test
+ * fails, so a single slow run caused by the machine does not fail it.
+ */
+public class ScalingTest {
+
+    private static final boolean LARGE = Boolean.getBoolean("scaling.large");
+
+    private static final int SMALL = 1_000;
+    private static final int MEDIUM = 100_000;
+    private static final int HUGE = 10_000_000;
+
+    // Allowed excess of the measured exponent over the expected one
+    private static final double SLACK = 0.5;
+    private static final int ATTEMPTS = 3;
+
+    // Exponent of Karatsuba multiplication, log2(3)
+    private static final double KARATSUBA = 1.585;
+
+    // Builds input for n digits and returns the timed action
+    private interface Operation {
+        Runnable prepare(int n, Random random);
+    }
+
+    private static final Operation GET = (n, random) -> {
+        NumberListImpl list = decimal(n, random);
+        return () -> {
+            long s = 0;
+            for (int i = 0; i < n; i++) s += list.get(i);
+            for (int i = n - 1; i >= 0; i -= 2) s += list.get(i);
+            assertTrue(s >= 0);
+        };
+    };
+
+    private static final Operation APPEND = (n, random) -> () -> {
+        NumberListImpl list = new NumberListImpl();
+        for (int i = 0; i < n; i++) list.add((byte) (i % 10));
+    };
+
+    private static final Operation REMOVE_ALL = (n, random) -> {
+        NumberListImpl list = decimal(n, random);
+        return () -> list.removeAll(Collections.singleton((byte) 5));
+    };
+
+    private static final Operation SEARCH = (n, random) -> {
+        NumberListImpl list = decimal(n, random);
+        return () -> {
+            list.indexOf((byte) 10);
+            list.countOccurrences(new byte[] {1, 2, 3});
+        };
+    };
+
+    private static final Operation RENDER = (n, random) -> {
+        NumberListImpl list = decimal(n, random);
+        return () -> list.toString();
+    };
+
+    private static final Operation ADD = (n, random) -> {
+        NumberListImpl a = decimal(n, random);
+        NumberListImpl b = decimal(n, random);
+        return () -> a.additionalOperation(b);
+    };
+
+    private static final Operation MOD = (n, random) -> {
+        NumberListImpl list = decimal(n, random);
+        return () -> list.mod(1_000_000_007);
+    };
+
+    private static final Operation REGROUP = (n, random) -> {
+        NumberListImpl list = NumberListImpl.fromDigits(digits(n, 2, random), 2);
+        return () -> list.changeScale(16);
+    };
+
+    // Halves joined by Karatsuba products
+    private static final Operation CONVERT = (n, random) -> {
+        NumberListImpl list = decimal(n, random);
+        return () -> list.changeScale();
+    };
+
+    @Test
+    public void testLinearOperations() {
+        assertGrowth("get", GET, SMALL, MEDIUM, 1);
+        assertGrowth("append", APPEND, SMALL, MEDIUM, 1);
+        assertGrowth("removeAll", REMOVE_ALL, SMALL, MEDIUM, 1);
+        assertGrowth("search", SEARCH, SMALL, MEDIUM, 1);
+        assertGrowth("toString", RENDER, SMALL, MEDIUM, 1);
+        assertGrowth("additionalOperation", ADD, SMALL, MEDIUM, 1);
+        assertGrowth("mod", MOD, SMALL, MEDIUM, 1);
+        assertGrowth("changeScale(2 -> 16)", REGROUP, SMALL, MEDIUM, 1);
+    }
+
+    @Test
+    public void testConversionSubquadratic() {
+        assertGrowth("changeScale(10 -> 3)", CONVERT, SMALL, MEDIUM, KARATSUBA);
+    }
+
+    @Test
+    public void testLinearOperationsLarge() {
+        assumeTrue("Set -Dscaling.large=true to run", LARGE);
+        assertGrowth("get", GET, MEDIUM, HUGE, 1);
+        assertGrowth("append", APPEND, MEDIUM, HUGE, 1);
+        assertGrowth("removeAll", REMOVE_ALL, MEDIUM, HUGE, 1);
+        assertGrowth("search", SEARCH, MEDIUM, HUGE, 1);
+        assertGrowth("toString", RENDER, MEDIUM, HUGE, 1);
+        assertGrowth("additionalOperation", ADD, MEDIUM, HUGE, 1);
+        assertGrowth("mod", MOD, MEDIUM, HUGE, 1);
+        assertGrowth("changeScale(2 -> 16)", REGROUP, MEDIUM, HUGE, 1);
+    }
+
+    @Test
+    public void testConversionProperties() {
+        Random random = new Random(45);
+        for (int i = 0; i < 300; i++) {
+            BigInteger x = randomValue(random);
+            int from = randomBase(random);
+            int to = randomBase(random);
+            NumberListImpl list = withLeadingZeros(x, from, random.nextInt(3));
+
+            NumberListImpl converted = list.changeScale(to);
+            assertEquals(x.toString(to).toUpperCase(), converted.toString());
+            assertEquals(x.toString(), converted.toDecimalString());
+            assertEquals(0, converted.compareNumeric(list));
+            assertEquals(x.bitLength() == 0 ? 0 : x.toString(from).length(), list.significantLength());
+        }
+    }
+
+    @Test
+    public void testArithmeticProperties() {
+        Random random = new Random(450);
+        for (int i = 0; i < 300; i++) {
+            BigInteger x = randomValue(random);
+            BigInteger y = randomValue(random);
+            NumberListImpl a = withLeadingZeros(x, randomBase(random), random.nextInt(3));
+            NumberListImpl b = withLeadingZeros(y, randomBase(random), random.nextInt(3));
+
+            assertEquals(x.add(y).toString(), a.additionalOperation(b).toString());
+            assertEquals(x.compareTo(y), Integer.signum(a.compareNumeric(b)));
+            assertEquals(x.multiply(y).toString(),
+                    NumberExpression.of(a).times(b).inBase(10).evaluate().toString());
+
+            List<NumberListImpl> terms = new ArrayList<>();
+            BigInteger total = BigInteger.ZERO;
+            for (int j = random.nextInt(5); j >= 0; j--) {
+                BigInteger z = randomValue(random);
+                terms.add(withLeadingZeros(z, randomBase(random), 0));
+                total = total.add(z);
+            }
+            assertEquals(total.toString(), NumberLists.sum(terms).toDecimalString());
+
+            long m = 1 + (random.nextLong() >>> (1 + random.nextInt(63)));
+            BigInteger mm = BigInteger.valueOf(m);
+            assertEquals(x.mod(mm).longValue(), a.mod(m));
+            assertEquals(x.modPow(y, mm).longValue(), a.modPow(b, m));
+        }
+    }
+
+    // Fails if time grows faster than n^exponent between the sizes
+    private static void assertGrowth(String name, Operation op, int n1, int n2, double exponent) {
+        double measured = Double.POSITIVE_INFINITY;
+        for (int attempt = 0; attempt < ATTEMPTS && measured > exponent + SLACK; attempt++) {
+            double t1 = time(op, n1);
+            double t2 = time(op, n2);
+            measured = Math.min(measured, Math.log(t2 / t1) / Math.log((double) n2 / n1));
+        }
+        assertTrue(String.format("%s grows as n^%.2f between %d and %d digits, expected n^%.2f",
+                name, measured, n1, n2, exponent), measured <= exponent + SLACK);
+    }
+
+    // Best of several runs, in nanoseconds per run. Small inputs are run
+    // in batches, so each measurement covers at least 10^5 digits.
+    private static double time(Operation op, int n) {
+        int batch = Math.max(1, MEDIUM / n);
+        Random random = new Random(n);
+        double best = Double.POSITIVE_INFINITY;
+        for (int trial = 0; trial < 3; trial++) {
+            Runnable[] runs = new Runnable[batch];
+            for (int i = 0; i < batch; i++) runs[i] = op.prepare(n, random);
+            long started = System.nanoTime();
+            for (Runnable run : runs) run.run();
+            best = Math.min(best, (double) Math.max(1, System.nanoTime() - started) / batch);
+        }
+        return best;
+    }
+
+    private static NumberListImpl decimal(int n, Random random) {
+        return new NumberListImpl(digits(n, 10, random));
+    }
+
+    private static byte[] digits(int n, int base, Random random) {
+        byte[] digits = new byte[n];
+        for (int i = 0; i < n; i++) digits[i] = (byte) random.nextInt(base);
+        digits[0] = (byte) (1 + random.nextInt(base - 1));
+        return digits;
+    }
+
+    private static BigInteger randomValue(Random random) {
+        switch (random.nextInt(4)) {
+            case 0: return BigInteger.valueOf(random.nextInt(20));
+            case 1: return BigInteger.valueOf(random.nextLong() >>> 1);
+            default: return new BigInteger(1 + random.nextInt(2000), random);
+        }
+    }
+
+    private static int randomBase(Random random) {
+        return ChangeScaleTest.BASES[random.nextInt(ChangeScaleTest.BASES.length)];
+    }
+
+    private static NumberListImpl withLeadingZeros(BigInteger x, int base, int zeros) {
+        NumberListImpl list = new NumberListImpl(x).changeScale(base);
+        byte[] digits = new byte[zeros + list.size()];
+        for (int i = 0; i < list.size(); i++) digits[zeros + i] = list.get(i);
+        return NumberListImpl.fromDigits(digits, base);
+    }
+}
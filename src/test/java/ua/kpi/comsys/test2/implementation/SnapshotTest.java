@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2014-2015, NTUU KPI, Computer systems department and/or its affiliates. All rights reserved.
+ * NTUU KPI PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ */
+
+package ua.kpi.comsys.test2.implementation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotTest {
+
+    @Test
+    public void testIsolatedFromChanges() {
+        String digits = digits(3 * NumberListImpl.MAX_CHUNK + 100);
+        NumberListImpl list = new NumberListImpl(digits);
+        NumberListImpl first = list.snapshot();
+
+        list.set(0, (byte) 9);
+        list.swap(1, list.size() - 1);
+        NumberListImpl second = list.snapshot();
+        list.sortDescending();
+        list.remove(5);
+        list.add((byte) 7);
+        list.shiftLeft();
+        NumberListImpl third = list.snapshot();
+        list.removeAll(Arrays.asList((byte) 0, (byte) 1));
+        list.setCanonical(true);
+        list.clear();
+
+        assertEquals(digits, first.toString());
+        assertEquals(digits.length(), first.size());
+        List<Byte> expected = new ArrayList<>(new NumberListImpl(digits));
+        expected.set(0, (byte) 9);
+        expected.set(1, expected.set(expected.size() - 1, expected.get(1)));
+        assertEquals(expected, second);
+        assertEquals(expected.size() + 1, third.size());
+        assertEquals(Byte.valueOf((byte) 0), third.get(third.size() - 1));
+        assertEquals(Byte.valueOf((byte) 7), third.get(third.size() - 2));
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void testAppendAfterSnapshot() {
+        NumberListImpl list = new NumberListImpl("12345");
+        NumberListImpl view = list.snapshot();
+        for (int i = 0; i < 100; i++) list.add((byte) 6);
+        NumberListImpl again = list.snapshot();
+        list.remove(list.size() - 1);
+        list.add((byte) 8);
+
+        assertEquals("12345", view.toString());
+        assertEquals(105, again.size());
+        assertEquals(Byte.valueOf((byte) 6), again.get(104));
+        assertEquals(Byte.valueOf((byte) 8), list.get(104));
+    }
+
+    @Test
+    public void testReadOnly() {
+        NumberListImpl view = new NumberListImpl("123").snapshot();
+        assertTrue(view.isSnapshot());
+        assertSame(view, view.snapshot());
+        for (Runnable change : new Runnable[] {
+                () -> view.add((byte) 1), () -> view.set(0, (byte) 1), () -> view.swap(0, 1),
+                view::sortAscending, view::shiftLeft, view::shiftRight, view::clear,
+                () -> view.remove(0), () -> view.setCanonical(true)}) {
+            try {
+                change.run();
+                throw new AssertionError("Snapshot was changed");
+            } catch (UnsupportedOperationException e) {
+                // Expected
+            }
+        }
+        assertEquals("123", view.toString());
+        assertEquals("11120", view.changeScale(3).toString());
+    }
+
+    @Test
+    public void testConcurrentReaders() throws InterruptedException {
+        NumberListImpl list = new NumberListImpl(digits(20000));
+        int[] expected = counts(list.toString());
+        BlockingQueue<NumberListImpl> queue = new ArrayBlockingQueue<>(4);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            try {
+                for (NumberListImpl view = queue.take(); view.size() > 0; view = queue.take()) {
+                    assertArrayEquals(expected, counts(view.toString()));
+                    assertEquals(view.toString(), view.toDecimalString());
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        reader.start();
+
+        Random random = new Random(38);
+        for (int i = 0; i < 200; i++) {
+            for (int j = 0; j < 50; j++) {
+                list.swap(random.nextInt(list.size()), random.nextInt(list.size()));
+            }
+            if (i % 10 == 0) list.sortAscending();
+            queue.put(list.snapshot());
+        }
+        queue.put(new NumberListImpl().snapshot());
+        reader.join();
+        assertNull(failure.get());
+    }
+
+    private static int[] counts(String digits) {
+        int[] counts = new int[10];
+        for (int i = 0; i < digits.length(); i++) counts[digits.charAt(i) - '0']++;
+        return counts;
+    }
+
+    private static String digits(int n) {
+        StringBuilder sb = new StringBuilder(n);
+        for (int i = 0; i < n; i++) sb.append((char) ('1' + i % 9));
+        return sb.toString();
+    }
+}